@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.szhynet.widget.xtoast;
+
+import com.szhynet.widget.xtoast.utils.RateLimiter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the rate limiter check every manager runs before queueing a toast.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RateLimiterBenchmark {
+
+    private static final String[] KEYS = {"saved", "deleted", "sent", "failed"};
+
+    private RateLimiter mRateLimiter;
+    private long mNow;
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+
+        mRateLimiter = new RateLimiter(10, 1000);
+        mRateLimiter.setPerKeyLimit(3, 1000, 1);
+
+    }
+
+    @Benchmark
+    public boolean tryAcquire() {
+
+        mNow += 7;
+
+        return mRateLimiter.tryAcquire(KEYS[mIndex++ & 3], mNow);
+
+    }
+
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.szhynet.widget.xtoast;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enqueue and dequeue throughput of the scheduling core in the slot configuration each
+ * manager runs it with. Time stands still and scheduled tasks are dropped, so only the
+ * queueing itself is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchedulerBenchmark {
+
+    private static final int BATCH = 64;
+
+    @Param({"XToast", "XActivityToast", "XCardToast"})
+    public String manager;
+
+    private ToastScheduler<Item> mScheduler;
+    private Item[] mItems;
+    private Item mDuplicate;
+
+    @Setup
+    public void setUp() {
+
+        final boolean cards = "XCardToast".equals(manager);
+
+        final int lanes = cards ? 1 : XToast.Priority.values().length;
+
+        final FrozenTime time = new FrozenTime();
+
+        mScheduler = new ToastScheduler<Item>(lanes, time, time, new ItemCallback());
+
+        /* SuperCardToasts all show at once, the others take turns */
+        mScheduler.setSlots(cards ? Integer.MAX_VALUE : 1);
+
+        mItems = new Item[BATCH];
+
+        for (int i = 0; i < BATCH; i++) {
+
+            mItems[i] = new Item("toast " + i, i % lanes);
+
+        }
+
+        mDuplicate = new Item("toast 0", 0);
+
+    }
+
+    /**
+     * Queues a batch and lets every toast show and leave in turn.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int enqueueAndDrain() {
+
+        for (Item item : mItems) {
+
+            mScheduler.offer(item);
+
+        }
+
+        int shown = 0;
+
+        while (mScheduler.getShowingCount() > 0) {
+
+            mScheduler.release(mScheduler.getShowing(0), true);
+            mScheduler.promote();
+
+            shown++;
+
+        }
+
+        return shown;
+
+    }
+
+    /**
+     * Starts and cancels the display timer of every toast in a batch.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long startAndCancelTimers() {
+
+        for (Item item : mItems) {
+
+            mScheduler.startTimer(item, 2000);
+
+        }
+
+        final long remaining = mScheduler.getRemaining(mItems[0]);
+
+        for (Item item : mItems) {
+
+            mScheduler.cancelTimer(item);
+
+        }
+
+        return remaining;
+
+    }
+
+    /**
+     * Offers a duplicate of the showing toast with coalescing on.
+     */
+    @Benchmark
+    public boolean coalesceDuplicate() {
+
+        mScheduler.setCoalescing(true);
+
+        if (mScheduler.getShowingCount() == 0) {
+
+            mScheduler.offer(mItems[0]);
+
+        }
+
+        return mScheduler.offer(mDuplicate);
+
+    }
+
+    private static final class Item {
+
+        final String mKey;
+        final int mLane;
+        final ToastHandle mHandle = new ToastHandle();
+
+        Item(String key, int lane) {
+
+            this.mKey = key;
+            this.mLane = lane;
+
+        }
+
+    }
+
+    private static final class ItemCallback implements ToastScheduler.Callback<Item> {
+
+        @Override
+        public ToastHandle getHandle(Item item) {
+
+            return item.mHandle;
+
+        }
+
+        @Override
+        public int getLane(Item item) {
+
+            return item.mLane;
+
+        }
+
+        @Override
+        public String getKey(Item item) {
+
+            return item.mKey;
+
+        }
+
+        @Override
+        public long getDeadline(Item item) {
+
+            return 0;
+
+        }
+
+        @Override
+        public void onShow(Item item) {
+
+            /* Do nothing */
+
+        }
+
+        @Override
+        public void onCoalesce(Item item, boolean showing) {
+
+            /* Do nothing */
+
+        }
+
+        @Override
+        public void onCollapse(Item item) {
+
+            /* Do nothing */
+
+        }
+
+        @Override
+        public void onDrop(Item item) {
+
+            /* Do nothing */
+
+        }
+
+        @Override
+        public void onTimeUp(Item item) {
+
+            /* Do nothing */
+
+        }
+
+    }
+
+    /* A clock that never moves and an executor that never runs anything */
+    private static final class FrozenTime implements Clock, DelayedExecutor {
+
+        @Override
+        public long now() {
+
+            return 1000;
+
+        }
+
+        @Override
+        public void executeAt(Runnable task, long time) {
+
+            /* Do nothing */
+
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+
+            /* Do nothing */
+
+        }
+
+    }
+
+}
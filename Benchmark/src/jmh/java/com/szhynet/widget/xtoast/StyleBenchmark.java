@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.szhynet.widget.xtoast;
+
+import com.szhynet.widget.xtoast.utils.Style;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of the preset {@link Style} lookups every styled toast goes
+ * through. Style.getCustom() needs a Context and is measured by the Robolectric suite.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StyleBenchmark {
+
+    @Param({"0", "2", "7"})
+    public int styleType;
+
+    @Benchmark
+    public Style get() {
+
+        return Style.get(styleType);
+
+    }
+
+    @Benchmark
+    public Style getWithAnimations() {
+
+        return Style.get(styleType, XToast.Animations.POPUP);
+
+    }
+
+}
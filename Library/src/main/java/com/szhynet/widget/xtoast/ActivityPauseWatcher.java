@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+
+import java.util.WeakHashMap;
+
+/**
+ * Tells a manager when the activities its toasts belong to are paused and resumed. Registers
+ * itself with the Application the first time it is given an activity.
+ */
+abstract class ActivityPauseWatcher implements Application.ActivityLifecycleCallbacks {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "ActivityPauseWatcher";
+
+    /* Activities paused since the watcher was registered, weak so they can be collected */
+    private final WeakHashMap<Activity, Boolean> mPaused = new WeakHashMap<Activity, Boolean>();
+
+    private Application mApplication;
+
+    /**
+     * Called when an activity is paused.
+     */
+    abstract void onPaused(Activity activity);
+
+    /**
+     * Called when an activity is resumed.
+     */
+    abstract void onResumed(Activity activity);
+
+    /**
+     * Registers the watcher with the Application of the activity unless already registered.
+     */
+    void watch(Activity activity) {
+
+        if (mApplication != null || activity == null) {
+
+            return;
+
+        }
+
+        mApplication = activity.getApplication();
+
+        if (mApplication != null) {
+
+            mApplication.registerActivityLifecycleCallbacks(this);
+
+        }
+
+    }
+
+    /**
+     * Returns true if the activity is known to be paused.
+     */
+    boolean isPaused(Activity activity) {
+
+        return activity != null && mPaused.containsKey(activity);
+
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+
+        mPaused.put(activity, Boolean.TRUE);
+
+        onPaused(activity);
+
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+
+        mPaused.remove(activity);
+
+        onResumed(activity);
+
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+
+        mPaused.remove(activity);
+
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+
+        /* Do nothing */
+
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+
+        /* Do nothing */
+
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+
+        /* Do nothing */
+
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+
+        /* Do nothing */
+
+    }
+
+}
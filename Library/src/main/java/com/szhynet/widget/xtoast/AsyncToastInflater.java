@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Inflates toast layouts on a background thread and hands the views to the
+ * {@link ToastViewPool} on the main thread, where the toast constructors pick them up. Uses a
+ * clone of the activity's inflater since LayoutInflater is not thread safe. The background
+ * of the toast's style is loaded as well so applying it only hits the resource cache. If a
+ * layout cannot be inflated off the main thread the toast simply inflates it as usual.
+ */
+final class AsyncToastInflater {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "AsyncToastInflater";
+
+    private static final class Holder {
+
+        private static final AsyncToastInflater INSTANCE = new AsyncToastInflater();
+
+    }
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+
+                @Override
+                public Thread newThread(final Runnable runnable) {
+
+                    final Thread thread = new Thread(new Runnable() {
+
+                        @Override
+                        public void run() {
+
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+
+                            runnable.run();
+
+                        }
+
+                    }, "XToast inflater");
+
+                    thread.setDaemon(true);
+
+                    return thread;
+
+                }
+
+            });
+
+    private AsyncToastInflater() {
+
+    }
+
+    static AsyncToastInflater getInstance() {
+
+        return Holder.INSTANCE;
+
+    }
+
+    /**
+     * Inflates a layout for the activity in the background. Called on the main thread, the
+     * view is pooled and the callback run on the main thread, unless the activity is
+     * finishing by then. A hand-off view is pooled even if the pool is off or full, for a
+     * toast the callback builds straight away.
+     *
+     * @param background drawable resource to load with it, zero for none
+     * @param callback   may be null
+     */
+    void inflate(final Activity activity, final int layout, final ViewGroup root,
+                 final int background, final String sectionName, final boolean handOff,
+                 final Runnable callback) {
+
+        final LayoutInflater layoutInflater = ((LayoutInflater) activity
+                .getSystemService(Context.LAYOUT_INFLATER_SERVICE)).cloneInContext(activity);
+
+        mExecutor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+
+                View view;
+
+                try {
+
+                    view = ToastViewFactory.getInstance().inflate(layoutInflater, layout, root,
+                            sectionName);
+
+                    if (background != 0) {
+
+                        activity.getResources().getDrawable(background);
+
+                    }
+
+                } catch (RuntimeException e) {
+
+                    /* Needs the main thread, the toast inflates it itself */
+                    view = null;
+
+                }
+
+                final View inflated = view;
+
+                mHandler.post(new Runnable() {
+
+                    @Override
+                    public void run() {
+
+                        if (activity.isFinishing()) {
+
+                            return;
+
+                        }
+
+                        if (inflated != null) {
+
+                            ToastViewPool.getInstance().put(inflated, activity, layout, root,
+                                    handOff);
+
+                        }
+
+                        if (callback != null) {
+
+                            callback.run();
+
+                        }
+
+                    }
+
+                });
+
+            }
+
+        });
+
+    }
+
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.szhynet.widget.xtoast;
+
+/**
+ * Runs tasks of the scheduling core at a time of its {@link Clock}. On the device this posts
+ * to the main thread Handler, tests run the tasks when they advance their clock.
+ */
+interface DelayedExecutor {
+
+    /**
+     * Runs the task once the clock reaches the time.
+     */
+    void executeAt(Runnable task, long time);
+
+    /**
+     * Removes every pending run of the task.
+     */
+    void cancel(Runnable task);
+
+}
@@ -0,0 +1,541 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.text.Layout;
+import android.text.TextPaint;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.View;
+
+/**
+ * A STANDARD toast in a single view. It draws its background, icon and text itself instead
+ * of a LinearLayout holding a TextView, so a toast measures, lays out and draws one view.
+ * Takes the same setters as the TextView of the layouts. Text layouts come from the
+ * {@link TextLayoutCache}, so a message shown before is not measured again. Used behind
+ * XToasts, SuperActivityToasts and SuperCardToasts once turned on with
+ * XToast.getViewFactory().setFlatEnabled(true).
+ */
+public class FlatToastView extends View {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "FlatToastView";
+
+    /* Slant of a fake italic, the same as TextView's */
+    private static final float ITALIC_SKEW = -0.25f;
+
+    private final TextPaint mTextPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+    private final Drawable[] mCompoundDrawables = new Drawable[4];
+
+    private CharSequence mText = "";
+    private int mTextColor = Color.WHITE;
+    private int mGravity = Gravity.CENTER;
+    private int mCompoundDrawablePadding;
+    private Layout mLayout;
+
+    /**
+     * Instantiates a new FlatToastView with white 14sp text.
+     *
+     * @param context {@link Context}
+     */
+    public FlatToastView(Context context) {
+
+        super(context);
+
+        mTextPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 14,
+                context.getResources().getDisplayMetrics()));
+
+        TextLayoutCache.getInstance().register(context);
+
+    }
+
+    /**
+     * Sets the text.
+     *
+     * @param text {@link CharSequence}
+     */
+    public void setText(CharSequence text) {
+
+        mText = text != null ? text : "";
+
+        invalidateLayout();
+
+    }
+
+    /**
+     * Returns the text.
+     *
+     * @return {@link CharSequence}
+     */
+    public CharSequence getText() {
+
+        return mText;
+
+    }
+
+    /**
+     * Sets the text color.
+     *
+     * @param textColor {@link Color}
+     */
+    public void setTextColor(int textColor) {
+
+        mTextColor = textColor;
+
+        invalidate();
+
+    }
+
+    /**
+     * Returns the text color.
+     *
+     * @return int
+     */
+    public int getCurrentTextColor() {
+
+        return mTextColor;
+
+    }
+
+    /**
+     * Sets the text size in sp.
+     *
+     * @param textSize float
+     */
+    public void setTextSize(float textSize) {
+
+        setTextSize(TypedValue.COMPLEX_UNIT_SP, textSize);
+
+    }
+
+    /**
+     * Sets the text size in a unit of {@link TypedValue}.
+     *
+     * @param unit     int
+     * @param textSize float
+     */
+    public void setTextSize(int unit, float textSize) {
+
+        mTextPaint.setTextSize(TypedValue.applyDimension(unit, textSize,
+                getResources().getDisplayMetrics()));
+
+        invalidateLayout();
+
+    }
+
+    /**
+     * Returns the text size in pixels.
+     *
+     * @return float
+     */
+    public float getTextSize() {
+
+        return mTextPaint.getTextSize();
+
+    }
+
+    /**
+     * Sets the typeface.
+     *
+     * @param typeface {@link Typeface}
+     */
+    public void setTypeface(Typeface typeface) {
+
+        mTextPaint.setTypeface(typeface);
+
+        invalidateLayout();
+
+    }
+
+    /**
+     * Sets the typeface and style, faking bold and italic if the typeface has no such
+     * style.
+     *
+     * @param typeface {@link Typeface}
+     * @param style    {@link Typeface} style
+     */
+    public void setTypeface(Typeface typeface, int style) {
+
+        if (style > 0) {
+
+            typeface = typeface == null ? Typeface.defaultFromStyle(style)
+                    : Typeface.create(typeface, style);
+
+            final int missing = style & ~(typeface != null ? typeface.getStyle() : 0);
+
+            mTextPaint.setFakeBoldText((missing & Typeface.BOLD) != 0);
+            mTextPaint.setTextSkewX((missing & Typeface.ITALIC) != 0 ? ITALIC_SKEW : 0);
+
+        } else {
+
+            mTextPaint.setFakeBoldText(false);
+            mTextPaint.setTextSkewX(0);
+
+        }
+
+        setTypeface(typeface);
+
+    }
+
+    /**
+     * Returns the typeface.
+     *
+     * @return {@link Typeface}
+     */
+    public Typeface getTypeface() {
+
+        return mTextPaint.getTypeface();
+
+    }
+
+    /**
+     * Sets the gravity of the text within the view.
+     *
+     * @param gravity {@link Gravity}
+     */
+    public void setGravity(int gravity) {
+
+        mGravity = gravity;
+
+        invalidateLayout();
+
+    }
+
+    /**
+     * Sets the space between the icon and the text in pixels.
+     *
+     * @param padding int
+     */
+    public void setCompoundDrawablePadding(int padding) {
+
+        mCompoundDrawablePadding = padding;
+
+        invalidateLayout();
+
+    }
+
+    /**
+     * Sets the icon at a position, replacing the icons at the others.
+     *
+     * @param icon         {@link Drawable}, may be null
+     * @param iconPosition {@link XToast.IconPosition}
+     */
+    public void setIcon(Drawable icon, XToast.IconPosition iconPosition) {
+
+        if (iconPosition == XToast.IconPosition.LEFT) {
+
+            setCompoundDrawablesWithIntrinsicBounds(icon, null, null, null);
+
+        } else if (iconPosition == XToast.IconPosition.TOP) {
+
+            setCompoundDrawablesWithIntrinsicBounds(null, icon, null, null);
+
+        } else if (iconPosition == XToast.IconPosition.RIGHT) {
+
+            setCompoundDrawablesWithIntrinsicBounds(null, null, icon, null);
+
+        } else {
+
+            setCompoundDrawablesWithIntrinsicBounds(null, null, null, icon);
+
+        }
+
+    }
+
+    /**
+     * Sets the icons around the text at their intrinsic size, like the TextView method of
+     * the same name.
+     */
+    public void setCompoundDrawablesWithIntrinsicBounds(Drawable left, Drawable top,
+                                                        Drawable right, Drawable bottom) {
+
+        final Drawable[] drawables = {left, top, right, bottom};
+
+        for (Drawable drawable : drawables) {
+
+            if (drawable != null) {
+
+                drawable.setBounds(0, 0, drawable.getIntrinsicWidth(),
+                        drawable.getIntrinsicHeight());
+
+            }
+
+        }
+
+        setCompoundDrawables(left, top, right, bottom);
+
+    }
+
+    /**
+     * Sets the icons around the text with the bounds they already have.
+     */
+    public void setCompoundDrawables(Drawable left, Drawable top, Drawable right,
+                                     Drawable bottom) {
+
+        mCompoundDrawables[0] = left;
+        mCompoundDrawables[1] = top;
+        mCompoundDrawables[2] = right;
+        mCompoundDrawables[3] = bottom;
+
+        invalidateLayout();
+
+    }
+
+    /**
+     * Returns the icons left, top, right and bottom of the text.
+     *
+     * @return {@link Drawable}[]
+     */
+    public Drawable[] getCompoundDrawables() {
+
+        return mCompoundDrawables.clone();
+
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+
+        final int widthMode = MeasureSpec.getMode(widthMeasureSpec);
+        final int widthSize = MeasureSpec.getSize(widthMeasureSpec);
+
+        final int horizontalPadding = getPaddingLeft() + getPaddingRight()
+                + getDrawableWidth(mCompoundDrawables[0])
+                + getDrawableWidth(mCompoundDrawables[2]);
+
+        int width;
+
+        if (widthMode == MeasureSpec.EXACTLY) {
+
+            width = widthSize;
+
+        } else {
+
+            final int textWidth;
+
+            if (widthMode == MeasureSpec.AT_MOST) {
+
+                /* Broken at the widest it may be, the longest line is as wide as it needs */
+                textWidth = getLongestLineWidth(
+                        getLayout(Math.max(0, widthSize - horizontalPadding)));
+
+            } else {
+
+                textWidth = (int) Math.ceil(Layout.getDesiredWidth(mText, mTextPaint));
+
+            }
+
+            width = horizontalPadding + Math.max(textWidth,
+                    Math.max(getBoundsWidth(mCompoundDrawables[1]),
+                            getBoundsWidth(mCompoundDrawables[3])));
+
+            width = Math.max(width, getSuggestedMinimumWidth());
+
+            if (widthMode == MeasureSpec.AT_MOST) {
+
+                width = Math.min(width, widthSize);
+
+            }
+
+        }
+
+        final int layoutWidth = Math.max(0, width - horizontalPadding);
+
+        if (mLayout == null || mLayout.getWidth() != layoutWidth) {
+
+            mLayout = getLayout(layoutWidth);
+
+        }
+
+        final int height = getPaddingTop() + getPaddingBottom()
+                + getDrawableHeight(mCompoundDrawables[1])
+                + getDrawableHeight(mCompoundDrawables[3])
+                + Math.max(mLayout.getHeight(), Math.max(
+                getBoundsHeight(mCompoundDrawables[0]),
+                getBoundsHeight(mCompoundDrawables[2])));
+
+        setMeasuredDimension(width, resolveSize(Math.max(height, getSuggestedMinimumHeight()),
+                heightMeasureSpec));
+
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+
+        if (mLayout == null) {
+
+            return;
+
+        }
+
+        final Drawable left = mCompoundDrawables[0];
+        final Drawable top = mCompoundDrawables[1];
+        final Drawable right = mCompoundDrawables[2];
+        final Drawable bottom = mCompoundDrawables[3];
+
+        /* The area between the top and bottom icons that the text and side icons share */
+        final int areaLeft = getPaddingLeft() + getDrawableWidth(left);
+        final int areaRight = getWidth() - getPaddingRight() - getDrawableWidth(right);
+        final int areaTop = getPaddingTop() + getDrawableHeight(top);
+        final int areaBottom = getHeight() - getPaddingBottom() - getDrawableHeight(bottom);
+
+        if (left != null) {
+
+            drawDrawable(canvas, left, getPaddingLeft(),
+                    (areaTop + areaBottom - left.getBounds().height()) / 2);
+
+        }
+
+        if (right != null) {
+
+            drawDrawable(canvas, right, areaRight + mCompoundDrawablePadding,
+                    (areaTop + areaBottom - right.getBounds().height()) / 2);
+
+        }
+
+        if (top != null) {
+
+            drawDrawable(canvas, top, (areaLeft + areaRight - top.getBounds().width()) / 2,
+                    getPaddingTop());
+
+        }
+
+        if (bottom != null) {
+
+            drawDrawable(canvas, bottom,
+                    (areaLeft + areaRight - bottom.getBounds().width()) / 2,
+                    areaBottom + mCompoundDrawablePadding);
+
+        }
+
+        int textTop = areaTop;
+
+        final int verticalGravity = mGravity & Gravity.VERTICAL_GRAVITY_MASK;
+
+        if (verticalGravity == Gravity.CENTER_VERTICAL) {
+
+            textTop += (areaBottom - areaTop - mLayout.getHeight()) / 2;
+
+        } else if (verticalGravity == Gravity.BOTTOM) {
+
+            textTop = areaBottom - mLayout.getHeight();
+
+        }
+
+        /* The layout may be shared with other views, its paint takes the color of this one */
+        mLayout.getPaint().setColor(mTextColor);
+
+        final int saveCount = canvas.save();
+
+        canvas.translate(areaLeft, textTop);
+
+        mLayout.draw(canvas);
+
+        canvas.restoreToCount(saveCount);
+
+    }
+
+    private void drawDrawable(Canvas canvas, Drawable drawable, int left, int top) {
+
+        final int saveCount = canvas.save();
+
+        canvas.translate(left, top);
+
+        drawable.draw(canvas);
+
+        canvas.restoreToCount(saveCount);
+
+    }
+
+    private Layout getLayout(int width) {
+
+        return TextLayoutCache.getInstance().get(mText, mTextPaint, width, getAlignment());
+
+    }
+
+    private static int getLongestLineWidth(Layout layout) {
+
+        float width = 0;
+
+        for (int i = 0; i < layout.getLineCount(); i++) {
+
+            width = Math.max(width, layout.getLineWidth(i));
+
+        }
+
+        return (int) Math.ceil(width);
+
+    }
+
+    private Layout.Alignment getAlignment() {
+
+        final int horizontalGravity = mGravity & Gravity.HORIZONTAL_GRAVITY_MASK;
+
+        if (horizontalGravity == Gravity.CENTER_HORIZONTAL) {
+
+            return Layout.Alignment.ALIGN_CENTER;
+
+        } else if (horizontalGravity == Gravity.RIGHT) {
+
+            return Layout.Alignment.ALIGN_OPPOSITE;
+
+        }
+
+        return Layout.Alignment.ALIGN_NORMAL;
+
+    }
+
+    /* Width of a side icon with its padding, zero without one */
+    private int getDrawableWidth(Drawable drawable) {
+
+        return drawable != null ? drawable.getBounds().width() + mCompoundDrawablePadding : 0;
+
+    }
+
+    /* Height of a top or bottom icon with its padding, zero without one */
+    private int getDrawableHeight(Drawable drawable) {
+
+        return drawable != null ? drawable.getBounds().height() + mCompoundDrawablePadding : 0;
+
+    }
+
+    private static int getBoundsWidth(Drawable drawable) {
+
+        return drawable != null ? drawable.getBounds().width() : 0;
+
+    }
+
+    private static int getBoundsHeight(Drawable drawable) {
+
+        return drawable != null ? drawable.getBounds().height() : 0;
+
+    }
+
+    private void invalidateLayout() {
+
+        mLayout = null;
+
+        requestLayout();
+        invalidate();
+
+    }
+
+}
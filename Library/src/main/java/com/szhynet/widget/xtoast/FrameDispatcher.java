@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import android.annotation.SuppressLint;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Collects the view operations the managers issue on the main thread and runs them together
+ * at the start of the next frame, so several toasts changing state in the same vsync cost a
+ * single layout pass. Uses {@link Choreographer} on Jelly Bean and above and falls back to a
+ * main thread Handler on older versions. Operations are kept in reused arrays so posting
+ * does not allocate.
+ */
+final class FrameDispatcher {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "FrameDispatcher";
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Receives the operations posted for it when the frame runs.
+     */
+    interface Target {
+
+        void doFrameOperation(int operation, Object object);
+
+    }
+
+    private static final class Holder {
+
+        private static final FrameDispatcher INSTANCE = new FrameDispatcher();
+
+    }
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private final Runnable mFallback = new Runnable() {
+
+        @Override
+        public void run() {
+
+            doFrame();
+
+        }
+
+    };
+
+    /* Choreographer.FrameCallback, only created on Jelly Bean and above */
+    private Object mVsyncCallback;
+
+    private Target[] mTargets = new Target[INITIAL_CAPACITY];
+    private int[] mOperations = new int[INITIAL_CAPACITY];
+    private Object[] mObjects = new Object[INITIAL_CAPACITY];
+    private int mCount;
+
+    /* The batch being run, swapped with the pending one every frame */
+    private Target[] mRunTargets = new Target[INITIAL_CAPACITY];
+    private int[] mRunOperations = new int[INITIAL_CAPACITY];
+    private Object[] mRunObjects = new Object[INITIAL_CAPACITY];
+    private int mRunIndex;
+    private int mRunCount;
+
+    private boolean mScheduled;
+
+    private FrameDispatcher() {
+
+        /* Singleton */
+
+    }
+
+    static FrameDispatcher getInstance() {
+
+        return Holder.INSTANCE;
+
+    }
+
+    /**
+     * Runs an operation at the start of the next frame. Main thread only.
+     */
+    void post(Target target, int operation, Object object) {
+
+        if (mCount == mTargets.length) {
+
+            grow();
+
+        }
+
+        mTargets[mCount] = target;
+        mOperations[mCount] = operation;
+        mObjects[mCount] = object;
+        mCount++;
+
+        if (!mScheduled) {
+
+            mScheduled = true;
+
+            schedule();
+
+        }
+
+    }
+
+    /**
+     * Cancels pending operations of a target that match the operation and object.
+     */
+    void cancel(Target target, int operation, Object object) {
+
+        for (int i = 0; i < mCount; i++) {
+
+            if (mTargets[i] == target && mOperations[i] == operation && mObjects[i] == object) {
+
+                mTargets[i] = null;
+
+            }
+
+        }
+
+        for (int i = mRunIndex; i < mRunCount; i++) {
+
+            if (mRunTargets[i] == target && mRunOperations[i] == operation
+                    && mRunObjects[i] == object) {
+
+                mRunTargets[i] = null;
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Cancels every pending operation of a target.
+     */
+    void cancel(Target target) {
+
+        for (int i = 0; i < mCount; i++) {
+
+            if (mTargets[i] == target) {
+
+                mTargets[i] = null;
+
+            }
+
+        }
+
+        for (int i = mRunIndex; i < mRunCount; i++) {
+
+            if (mRunTargets[i] == target) {
+
+                mRunTargets[i] = null;
+
+            }
+
+        }
+
+    }
+
+    @SuppressLint("NewApi")
+    private void schedule() {
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+
+            if (mVsyncCallback == null) {
+
+                mVsyncCallback = new VsyncCallback();
+
+            }
+
+            Choreographer.getInstance().postFrameCallback(
+                    (Choreographer.FrameCallback) mVsyncCallback);
+
+        } else {
+
+            mHandler.post(mFallback);
+
+        }
+
+    }
+
+    private void doFrame() {
+
+        mScheduled = false;
+
+        /* Swap so operations posted while running wait for the next frame */
+        final Target[] targets = mRunTargets;
+        final int[] operations = mRunOperations;
+        final Object[] objects = mRunObjects;
+
+        mRunTargets = mTargets;
+        mRunOperations = mOperations;
+        mRunObjects = mObjects;
+        mRunCount = mCount;
+
+        mTargets = targets;
+        mOperations = operations;
+        mObjects = objects;
+        mCount = 0;
+
+        for (mRunIndex = 0; mRunIndex < mRunCount; mRunIndex++) {
+
+            final Target target = mRunTargets[mRunIndex];
+            final Object object = mRunObjects[mRunIndex];
+
+            mRunTargets[mRunIndex] = null;
+            mRunObjects[mRunIndex] = null;
+
+            if (target != null) {
+
+                target.doFrameOperation(mRunOperations[mRunIndex], object);
+
+            }
+
+        }
+
+        mRunIndex = 0;
+        mRunCount = 0;
+
+    }
+
+    private void grow() {
+
+        final int capacity = mTargets.length * 2;
+
+        final Target[] targets = new Target[capacity];
+        final int[] operations = new int[capacity];
+        final Object[] objects = new Object[capacity];
+
+        System.arraycopy(mTargets, 0, targets, 0, mCount);
+        System.arraycopy(mOperations, 0, operations, 0, mCount);
+        System.arraycopy(mObjects, 0, objects, 0, mCount);
+
+        mTargets = targets;
+        mOperations = operations;
+        mObjects = objects;
+
+    }
+
+    @SuppressLint("NewApi")
+    private final class VsyncCallback implements Choreographer.FrameCallback {
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+
+            FrameDispatcher.this.doFrame();
+
+        }
+
+    }
+
+}
@@ -0,0 +1,342 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import android.annotation.SuppressLint;
+import android.os.Build;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+/**
+ * Opt-in detector of dropped frames while toast animations run. Once enabled, every show,
+ * dismiss and collapse animation the library starts registers a {@link Choreographer} frame
+ * callback for as long as it runs. Each frame is counted against the toast kind,
+ * {@link XToast.Type}, {@link XToast.Animations} and {@link Phase} of every animation running
+ * at the time. It is janky when it starts more than half a frame budget late, which means at
+ * least one vsync was missed. Counters live in preallocated arrays so no frame allocates.
+ * XToasts are only counted inside the shared window, a window of their own is animated by
+ * the system outside the frames of the app. Get it with XToast.getJankMonitor(). Jelly Bean
+ * and above, used on the main thread.
+ */
+public final class JankMonitor {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "JankMonitor";
+
+    /* 60 frames per second */
+    private static final long DEFAULT_FRAME_BUDGET_NANOS = 16666667L;
+
+    /**
+     * Which class of toast runs the animation.
+     */
+    public enum Kind {
+
+        XTOAST,
+
+        XACTIVITYTOAST,
+
+        XCARDTOAST
+
+    }
+
+    /**
+     * What the animation does.
+     */
+    public enum Phase {
+
+        /**
+         * The toast animates in.
+         */
+        SHOW,
+
+        /**
+         * The toast animates out.
+         */
+        DISMISS,
+
+        /**
+         * A dismissed XCardToast shrinks its height to close the gap, which lays out its
+         * container on every frame.
+         */
+        COLLAPSE
+
+    }
+
+    private static final int KINDS = Kind.values().length;
+    private static final int TYPES = XToast.Type.values().length;
+    private static final int ANIMATIONS = XToast.Animations.values().length;
+    private static final int PHASES = Phase.values().length;
+    private static final int SLOTS = KINDS * TYPES * ANIMATIONS * PHASES;
+
+    private static final class Holder {
+
+        private static final JankMonitor INSTANCE = new JankMonitor();
+
+    }
+
+    /* Uptime each slot's animation runs until, zero when none runs */
+    private final long[] mActiveUntil = new long[SLOTS];
+    private final long[] mFrames = new long[SLOTS];
+    private final long[] mJankyFrames = new long[SLOTS];
+    private final long[] mSkippedFrames = new long[SLOTS];
+
+    private boolean mEnabled;
+    private boolean mScheduled;
+    private long mFrameBudgetNanos = DEFAULT_FRAME_BUDGET_NANOS;
+    private long mLastFrameNanos;
+
+    /* Choreographer.FrameCallback, only created on Jelly Bean and above */
+    private Object mFrameCallback;
+
+    private JankMonitor() {
+
+    }
+
+    static JankMonitor getInstance() {
+
+        return Holder.INSTANCE;
+
+    }
+
+    /**
+     * Starts or stops watching animations. Off by default.
+     *
+     * @param enabled boolean
+     */
+    public void setEnabled(boolean enabled) {
+
+        this.mEnabled = enabled;
+
+        if (!enabled) {
+
+            for (int i = 0; i < SLOTS; i++) {
+
+                mActiveUntil[i] = 0;
+
+            }
+
+        }
+
+    }
+
+    public boolean isEnabled() {
+
+        return mEnabled;
+
+    }
+
+    /**
+     * Sets the time one frame may take, 16.67 ms by default. Set it from the refresh rate of
+     * devices that run faster than 60 Hz.
+     *
+     * @param frameBudgetNanos long
+     */
+    public void setFrameBudget(long frameBudgetNanos) {
+
+        if (frameBudgetNanos <= 0) {
+
+            throw new IllegalArgumentException(TAG + " - The frame budget must be positive.");
+
+        }
+
+        this.mFrameBudgetNanos = frameBudgetNanos;
+
+    }
+
+    /**
+     * Returns how many frames were drawn while such an animation ran.
+     *
+     * @param kind       {@link Kind}
+     * @param type       {@link XToast.Type}
+     * @param animations {@link XToast.Animations}
+     * @param phase      {@link Phase}
+     *
+     * @return long
+     */
+    public long getFrameCount(Kind kind, XToast.Type type, XToast.Animations animations,
+                              Phase phase) {
+
+        return mFrames[slot(kind, type, animations, phase)];
+
+    }
+
+    /**
+     * Returns how many of those frames were over budget.
+     *
+     * @param kind       {@link Kind}
+     * @param type       {@link XToast.Type}
+     * @param animations {@link XToast.Animations}
+     * @param phase      {@link Phase}
+     *
+     * @return long
+     */
+    public long getJankyFrameCount(Kind kind, XToast.Type type, XToast.Animations animations,
+                                   Phase phase) {
+
+        return mJankyFrames[slot(kind, type, animations, phase)];
+
+    }
+
+    /**
+     * Returns how many vsyncs were missed in total during those janky frames.
+     *
+     * @param kind       {@link Kind}
+     * @param type       {@link XToast.Type}
+     * @param animations {@link XToast.Animations}
+     * @param phase      {@link Phase}
+     *
+     * @return long
+     */
+    public long getSkippedFrameCount(Kind kind, XToast.Type type, XToast.Animations animations,
+                                     Phase phase) {
+
+        return mSkippedFrames[slot(kind, type, animations, phase)];
+
+    }
+
+    /**
+     * Clears all counters.
+     */
+    public void reset() {
+
+        for (int i = 0; i < SLOTS; i++) {
+
+            mFrames[i] = 0;
+            mJankyFrames[i] = 0;
+            mSkippedFrames[i] = 0;
+
+        }
+
+    }
+
+    /**
+     * Watches the frames of an animation that starts now and runs for the duration.
+     */
+    @SuppressLint("NewApi")
+    void track(Kind kind, XToast.Type type, XToast.Animations animations, Phase phase,
+               long durationMillis) {
+
+        if (!mEnabled || durationMillis <= 0
+                || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+
+            return;
+
+        }
+
+        final int slot = slot(kind, type, animations, phase);
+
+        mActiveUntil[slot] = Math.max(mActiveUntil[slot],
+                SystemClock.uptimeMillis() + durationMillis);
+
+        if (!mScheduled) {
+
+            if (mFrameCallback == null) {
+
+                mFrameCallback = new FrameCallback();
+
+            }
+
+            mScheduled = true;
+            mLastFrameNanos = 0;
+
+            Choreographer.getInstance().postFrameCallback(
+                    (Choreographer.FrameCallback) mFrameCallback);
+
+        }
+
+    }
+
+    @SuppressLint("NewApi")
+    private void doFrame(long frameTimeNanos) {
+
+        final long now = SystemClock.uptimeMillis();
+
+        final long interval = mLastFrameNanos != 0 ? frameTimeNanos - mLastFrameNanos : 0;
+
+        /* The first frame has nothing to be measured against */
+        final long skipped = interval > mFrameBudgetNanos + mFrameBudgetNanos / 2
+                ? (interval + mFrameBudgetNanos / 2) / mFrameBudgetNanos - 1 : 0;
+
+        boolean active = false;
+
+        for (int i = 0; i < SLOTS; i++) {
+
+            if (mActiveUntil[i] == 0) {
+
+                continue;
+
+            }
+
+            if (interval > 0) {
+
+                mFrames[i]++;
+
+                if (skipped > 0) {
+
+                    mJankyFrames[i]++;
+                    mSkippedFrames[i] += skipped;
+
+                }
+
+            }
+
+            if (mActiveUntil[i] < now) {
+
+                mActiveUntil[i] = 0;
+
+            } else {
+
+                active = true;
+
+            }
+
+        }
+
+        mLastFrameNanos = frameTimeNanos;
+
+        mScheduled = active && mEnabled;
+
+        if (mScheduled) {
+
+            Choreographer.getInstance().postFrameCallback(
+                    (Choreographer.FrameCallback) mFrameCallback);
+
+        }
+
+    }
+
+    private static int slot(Kind kind, XToast.Type type, XToast.Animations animations,
+                            Phase phase) {
+
+        return ((kind.ordinal() * TYPES + type.ordinal()) * ANIMATIONS + animations.ordinal())
+                * PHASES + phase.ordinal();
+
+    }
+
+    @SuppressLint("NewApi")
+    private final class FrameCallback implements Choreographer.FrameCallback {
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+
+            JankMonitor.this.doFrame(frameTimeNanos);
+
+        }
+
+    }
+
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+/**
+ * Counts latencies in power of two millisecond buckets: the first bucket holds zero, bucket
+ * i holds the values from 2^(i-1) up to 2^i - 1 and the last one everything longer. Recording
+ * is a few array operations, so it stays cheap enough to leave on. Part of
+ * {@link ToastMetrics}, read it on the main thread.
+ */
+public final class LatencyHistogram {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "LatencyHistogram";
+
+    /* The last bucket starts at about 70 minutes */
+    private static final int BUCKETS = 24;
+
+    private final long[] mBuckets = new long[BUCKETS];
+
+    private long mCount;
+    private long mSum;
+    private long mMax;
+
+    LatencyHistogram() {
+
+    }
+
+    void record(long millis) {
+
+        final long value = Math.max(0, millis);
+
+        mBuckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value))]++;
+
+        mCount++;
+        mSum += value;
+
+        if (value > mMax) {
+
+            mMax = value;
+
+        }
+
+    }
+
+    void reset() {
+
+        for (int i = 0; i < BUCKETS; i++) {
+
+            mBuckets[i] = 0;
+
+        }
+
+        mCount = 0;
+        mSum = 0;
+        mMax = 0;
+
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return long
+     */
+    public long getCount() {
+
+        return mCount;
+
+    }
+
+    /**
+     * Returns the mean latency in milliseconds, zero if nothing was recorded.
+     *
+     * @return long
+     */
+    public long getMean() {
+
+        return mCount > 0 ? mSum / mCount : 0;
+
+    }
+
+    /**
+     * Returns the longest recorded latency in milliseconds.
+     *
+     * @return long
+     */
+    public long getMax() {
+
+        return mMax;
+
+    }
+
+    /**
+     * Returns an upper bound of the given percentile in milliseconds, the end of the bucket
+     * it falls in but never more than {@link #getMax()}. Zero if nothing was recorded.
+     *
+     * @param percentile double between 0 and 100
+     *
+     * @return long
+     */
+    public long getPercentile(double percentile) {
+
+        if (mCount == 0) {
+
+            return 0;
+
+        }
+
+        final long rank = Math.max(1,
+                (long) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100 * mCount));
+
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS - 1; i++) {
+
+            seen += mBuckets[i];
+
+            if (seen >= rank) {
+
+                return Math.min(getUpperBound(i), mMax);
+
+            }
+
+        }
+
+        return mMax;
+
+    }
+
+    /**
+     * Returns the number of buckets.
+     *
+     * @return int
+     */
+    public int getBucketCount() {
+
+        return BUCKETS;
+
+    }
+
+    /**
+     * Returns the number of latencies in a bucket.
+     *
+     * @param index int
+     *
+     * @return long
+     */
+    public long getBucket(int index) {
+
+        return mBuckets[index];
+
+    }
+
+    /**
+     * Returns the longest latency in milliseconds a bucket holds, Long.MAX_VALUE for the last.
+     *
+     * @param index int
+     *
+     * @return long
+     */
+    public long getUpperBound(int index) {
+
+        return index >= BUCKETS - 1 ? Long.MAX_VALUE : (1L << index) - 1;
+
+    }
+
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.szhynet.widget.xtoast;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+/**
+ * Drives the scheduling core on a Handler with uptime as its clock.
+ */
+final class MainThreadExecutor implements Clock, DelayedExecutor {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "MainThreadExecutor";
+
+    private final Handler mHandler;
+
+    MainThreadExecutor(Handler handler) {
+
+        this.mHandler = handler;
+
+    }
+
+    @Override
+    public long now() {
+
+        return SystemClock.uptimeMillis();
+
+    }
+
+    @Override
+    public void executeAt(Runnable task, long time) {
+
+        mHandler.postAtTime(task, time);
+
+    }
+
+    @Override
+    public void cancel(Runnable task) {
+
+        mHandler.removeCallbacks(task);
+
+    }
+
+}
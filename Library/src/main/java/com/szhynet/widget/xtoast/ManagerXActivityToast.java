@@ -18,13 +18,18 @@ package com.szhynet.widget.xtoast;
 
 import android.app.Activity;
 import android.os.Handler;
+import android.os.Looper;
 import android.os.Message;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.animation.*;
 
+import com.szhynet.widget.xtoast.utils.RateLimiter;
+
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Manages the life of a XActivityToast. Initial code derived from the Crouton library.
@@ -40,93 +45,475 @@ class ManagerXActivityToast extends Handler {
         /* Hexadecimal numbers that represent acronyms for the operation. **/
         private static final int DISPLAY = 0x44534154;
         private static final int REMOVE = 0x52534154;
+        private static final int DRAIN = 0x44524154;
+
+    }
+
+    /* Lazily created on first use without taking a lock */
+    private static final class Holder {
+
+        private static final ManagerXActivityToast INSTANCE = new ManagerXActivityToast();
 
     }
 
-    private static ManagerXActivityToast mManagerXActivityToast;
+    /* Queue, current slot, handles, time to live and display timers */
+    private final ToastScheduler<XActivityToast> mScheduler;
+
+    /* SuperActivityToasts shown from any thread wait here until the main thread drains them */
+    private final ConcurrentLinkedQueue<XActivityToast> mInbox =
+            new ConcurrentLinkedQueue<XActivityToast>();
+    private final AtomicBoolean mDrainPending = new AtomicBoolean();
+
+    /* View operations are applied together at the start of the next frame */
+    private final FrameDispatcher mFrameDispatcher = FrameDispatcher.getInstance();
+
+    private final FrameDispatcher.Target mFrameTarget = new FrameDispatcher.Target() {
+
+        @Override
+        public void doFrameOperation(int operation, Object object) {
+
+            if (operation == Messages.DISPLAY) {
+
+                displaySuperToast((XActivityToast) object);
+
+            } else if (operation == Messages.REMOVE) {
+
+                removeSuperToast((XActivityToast) object);
+
+            }
+
+        }
+
+    };
+
+    private final ToastScheduler.Callback<XActivityToast> mSchedulerCallback =
+            new ToastScheduler.Callback<XActivityToast>() {
+
+        @Override
+        public ToastHandle getHandle(XActivityToast xActivityToast) {
+
+            return xActivityToast.getHandle();
+
+        }
+
+        @Override
+        public int getLane(XActivityToast xActivityToast) {
+
+            return xActivityToast.getPriority().ordinal();
+
+        }
+
+        @Override
+        public String getKey(XActivityToast xActivityToast) {
+
+            return xActivityToast.getCoalesceKey();
+
+        }
+
+        @Override
+        public long getDeadline(XActivityToast xActivityToast) {
+
+            return xActivityToast.getDeadline();
+
+        }
+
+        @Override
+        public void onShow(XActivityToast xActivityToast) {
+
+            mFrameDispatcher.post(mFrameTarget, Messages.DISPLAY, xActivityToast);
+
+        }
 
-    private final LinkedList<XActivityToast> mList;
+        @Override
+        public boolean onCoalesce(XActivityToast xActivityToast, boolean showing) {
+
+            xActivityToast.coalesce();
+
+            /* Restart the display time of the showing XActivityToast */
+            if (showing && xActivityToast.isShowing() && !xActivityToast.isIndeterminate()) {
+
+                mFrameDispatcher.cancel(mFrameTarget, Messages.REMOVE, xActivityToast);
+
+                mScheduler.startTimer(xActivityToast, xActivityToast.getDuration());
+
+            }
+
+            return true;
+
+        }
+
+        @Override
+        public void onCollapse(XActivityToast xActivityToast) {
+
+            xActivityToast.collapse();
+
+        }
+
+        @Override
+        public void onDrop(XActivityToast xActivityToast) {
+
+            dropSuperToast(xActivityToast);
+
+        }
+
+        @Override
+        public void onTimeUp(XActivityToast xActivityToast) {
+
+            /* The display time is up, remove it with the rest of the next frame */
+            mFrameDispatcher.post(mFrameTarget, Messages.REMOVE, xActivityToast);
+
+        }
+
+    };
+
+    private final ActivityPauseWatcher mPauseWatcher = new ActivityPauseWatcher() {
+
+        @Override
+        void onPaused(Activity activity) {
+
+            final XActivityToast current = getCurrent();
+
+            if (current != null && current.getActivity() == activity) {
+
+                mScheduler.pauseTimer(current, ToastClock.PAUSE_BACKGROUND);
+
+            }
+
+        }
+
+        @Override
+        void onResumed(Activity activity) {
+
+            final XActivityToast current = getCurrent();
+
+            if (current != null && current.getActivity() == activity) {
+
+                mScheduler.resumeTimer(current, ToastClock.PAUSE_BACKGROUND);
+
+            }
+
+        }
+
+    };
+
+    private boolean mPreemptive;
 
     /* Private method to create a new list if the manager is being initialized */
     private ManagerXActivityToast() {
 
-        mList = new LinkedList<XActivityToast>();
+        super(Looper.getMainLooper());
+
+        final MainThreadExecutor executor = new MainThreadExecutor(this);
+
+        mScheduler = new ToastScheduler<XActivityToast>(XToast.Priority.values().length,
+                executor, executor, mSchedulerCallback);
 
     }
 
     /**
      * Singleton method to ensure all SuperActivityToasts are passed through the same manager.
      */
-    protected static synchronized ManagerXActivityToast getInstance() {
+    protected static ManagerXActivityToast getInstance() {
 
-        if (mManagerXActivityToast != null) {
+        return Holder.INSTANCE;
 
-            return mManagerXActivityToast;
+    }
 
-        } else {
+    /**
+     * Hands a XActivityToast to the main thread. Safe to call from any thread, on the main
+     * thread it is queued right away.
+     */
+    void add(XActivityToast xActivityToast) {
 
-            mManagerXActivityToast = new ManagerXActivityToast();
+        mInbox.offer(xActivityToast);
 
-            return mManagerXActivityToast;
+        if (Looper.myLooper() == getLooper()) {
+
+            drainInbox();
+
+        } else if (mDrainPending.compareAndSet(false, true)) {
+
+            /* One message drains every XActivityToast offered before it is handled */
+            sendEmptyMessage(Messages.DRAIN);
 
         }
 
     }
 
     /**
-     * Add a XActivityToast to the list. Will show immediately if no other SuperActivityToasts
-     * are in the list.
+     * Moves everything in the inbox into the queue, main thread only.
      */
-    void add(XActivityToast xActivityToast) {
+    private void drainInbox() {
+
+        /* Cleared first so an offer racing with the drain schedules another one */
+        mDrainPending.set(false);
+
+        XActivityToast xActivityToast;
+
+        while ((xActivityToast = mInbox.poll()) != null) {
+
+            enqueue(xActivityToast);
+
+        }
+
+    }
+
+    /**
+     * Add a XActivityToast to its priority lane. Will show immediately if no other
+     * SuperActivityToasts are showing.
+     */
+    private void enqueue(XActivityToast xActivityToast) {
+
+        /* Already showing or pending, the scheduler refuses it and its state must stay */
+        if (mScheduler.indexOf(xActivityToast) >= 0 || mScheduler.isPending(xActivityToast)) {
+
+            return;
+
+        }
+
+        mPauseWatcher.watch(xActivityToast.getActivity());
+
+        xActivityToast.prepareToShow();
+
+        if (mScheduler.offer(xActivityToast) && mPreemptive) {
+
+            preempt(xActivityToast);
+
+        }
+
+    }
 
-        mList.add(xActivityToast);
+    /**
+     * Returns the XActivityToast holding the display slot, or null.
+     */
+    private XActivityToast getCurrent() {
+
+        return mScheduler.getShowingCount() > 0 ? mScheduler.getShowing(0) : null;
+
+    }
 
-        this.showNextSuperToast();
+    /**
+     * Lets a higher priority XActivityToast interrupt the showing one.
+     */
+    void setPreemptive(boolean preemptive) {
+
+        this.mPreemptive = preemptive;
 
     }
 
     /**
-     * Shows the next XActivityToast in the list. Called by add() and when the dismiss animation
-     * of a previously showing XActivityToast ends.
+     * Interrupts the current XActivityToast if the new one outranks it and is next in line.
+     * The current one goes back to the head of its lane with the display time it had left.
      */
-    private void showNextSuperToast() {
+    private void preempt(XActivityToast xActivityToast) {
 
-        final XActivityToast xActivityToast = mList.peek();
+        final XActivityToast interrupted = getCurrent();
 
-        if (mList.isEmpty() || xActivityToast.getActivity() == null) {
+        if (interrupted == null || mScheduler.peek() != xActivityToast
+                || xActivityToast.getPriority().ordinal()
+                <= interrupted.getPriority().ordinal()) {
 
             return;
 
         }
 
-        if (!xActivityToast.isShowing()) {
+        if (!interrupted.isShowing()) {
+
+            /* Not displayed yet, simply let the new one go first */
+            mFrameDispatcher.cancel(mFrameTarget, Messages.DISPLAY, interrupted);
+
+            mScheduler.requeueFirst(interrupted);
+            mScheduler.promote();
+
+            return;
+
+        }
+
+        long remaining = 0;
+
+        if (!interrupted.isIndeterminate()) {
+
+            remaining = Math.min(interrupted.getDuration(), mScheduler.getRemaining(interrupted));
+
+            if (remaining <= 0) {
+
+                /* About to leave anyway */
+                return;
+
+            }
+
+        }
+
+        mFrameDispatcher.cancel(mFrameTarget, Messages.REMOVE, interrupted);
 
-            final Message message = obtainMessage(Messages.DISPLAY);
-            message.obj = xActivityToast;
-            sendMessage(message);
+        interrupted.interrupt(remaining);
+
+        mScheduler.requeueFirst(interrupted);
+
+        /* The new XActivityToast shows as soon as the dismiss animation ends */
+        if (!hideSuperToast(interrupted, false)) {
+
+            mScheduler.promote();
 
         }
 
     }
 
+    /**
+     * Cancels the pending or showing XActivityToast of a handle.
+     */
+    boolean cancel(ToastHandle handle) {
 
-    @Override
-    public void handleMessage(Message message) {
+        drainInbox();
 
-        final XActivityToast xActivityToast = (XActivityToast)
-                message.obj;
+        final XActivityToast xActivityToast = mScheduler.get(handle);
 
-        switch (message.what) {
+        if (xActivityToast == null) {
 
-            case Messages.DISPLAY:
+            return false;
 
-                displaySuperToast(xActivityToast);
+        }
 
-                break;
+        removeSuperToast(xActivityToast);
+
+        return true;
+
+    }
+
+    /**
+     * Returns true while the XActivityToast of a handle is pending or showing.
+     */
+    boolean isQueued(ToastHandle handle) {
+
+        drainInbox();
+
+        return mScheduler.get(handle) != null;
+
+    }
+
+    /**
+     * Updates the text of the pending or showing XActivityToast of a handle and its
+     * coalesce key.
+     */
+    boolean update(ToastHandle handle, CharSequence text) {
+
+        drainInbox();
+
+        final XActivityToast xActivityToast = mScheduler.get(handle);
+
+        if (xActivityToast == null) {
+
+            return false;
+
+        }
+
+        xActivityToast.updateText(text);
+
+        mScheduler.rekey(xActivityToast, xActivityToast.getCoalesceKey());
+
+        return true;
+
+    }
+
+    /**
+     * Bounds the number of pending SuperActivityToasts, zero means unbounded.
+     */
+    void setMaxQueueSize(int maxQueueSize, XToast.OverflowPolicy overflowPolicy) {
+
+        mScheduler.setMaxQueueSize(maxQueueSize, overflowPolicy.mSchedulerPolicy);
+
+    }
+
+    /**
+     * Number of SuperActivityToasts dropped because their time to live ran out while queued.
+     */
+    long getExpiredCount() {
+
+        return mScheduler.getExpiredCount();
+
+    }
+
+    /**
+     * Lifecycle metrics of all SuperActivityToasts.
+     */
+    ToastMetrics getMetrics() {
+
+        return mScheduler.getMetrics();
+
+    }
+
+    void setOnMetricsEventListener(ToastMetrics.OnEventListener onEventListener) {
 
-            case Messages.REMOVE:
+        mScheduler.getMetrics().setOnEventListener(onEventListener);
 
-                removeSuperToast(xActivityToast);
+    }
+
+    /**
+     * Limits how fast SuperActivityToasts are accepted, null removes the limit.
+     */
+    void setRateLimiter(RateLimiter rateLimiter) {
+
+        mScheduler.setRateLimiter(rateLimiter);
+
+    }
+
+    /**
+     * A XActivityToast that will never be shown still notifies its OnDismissWrapper.
+     */
+    private void dropSuperToast(XActivityToast xActivityToast) {
+
+        if (xActivityToast.getOnDismissWrapper() != null) {
+
+            xActivityToast.getOnDismissWrapper().onDismiss(xActivityToast.getView());
+
+        }
+
+    }
+
+    /**
+     * Enables merging of SuperActivityToasts that share a coalesce key.
+     */
+    void setCoalescing(boolean coalescing) {
+
+        mScheduler.setCoalescing(coalescing);
+
+    }
+
+    /**
+     * Sets how many higher priority SuperActivityToasts may jump ahead of a waiting lower
+     * priority one.
+     */
+    void setFairness(int fairness) {
+
+        mScheduler.setFairness(fairness);
+
+    }
+
+    /**
+     * Pauses the display time of a XActivityToast while the user touches it.
+     */
+    void onTouchChanged(XActivityToast xActivityToast, boolean touching) {
+
+        if (touching) {
+
+            mScheduler.pauseTimer(xActivityToast, ToastClock.PAUSE_TOUCH);
+
+        } else {
+
+            mScheduler.resumeTimer(xActivityToast, ToastClock.PAUSE_TOUCH);
+
+        }
+
+    }
+
+    @Override
+    public void handleMessage(Message message) {
+
+        switch (message.what) {
+
+            case Messages.DRAIN:
+
+                drainInbox();
 
                 break;
 
@@ -162,11 +549,31 @@ class ManagerXActivityToast extends Handler {
 
             try {
 
-                viewGroup.addView(toastView);
+                ToastTrace.begin(ToastTrace.ACTIVITY_ADD_VIEW);
+
+                try {
+
+                    viewGroup.addView(toastView);
+
+                } finally {
+
+                    ToastTrace.end();
+
+                }
 
                 if(!xActivityToast.getShowImmediate()) {
 
-                    toastView.startAnimation(getShowAnimation(xActivityToast));
+                    ToastTrace.begin(ToastTrace.ACTIVITY_SHOW_ANIMATION);
+
+                    final Animation animation = getShowAnimation(xActivityToast);
+
+                    toastView.startAnimation(animation);
+
+                    ToastTrace.end();
+
+                    JankMonitor.getInstance().track(JankMonitor.Kind.XACTIVITYTOAST,
+                            xActivityToast.getType(), xActivityToast.getAnimations(),
+                            JankMonitor.Phase.SHOW, animation.getDuration());
 
                 }
 
@@ -178,13 +585,21 @@ class ManagerXActivityToast extends Handler {
 
         }
 
+        /* Shown for what is left if it was interrupted earlier */
+        final long duration = xActivityToast.takeDisplayDuration();
+
         /* Dismiss the XActivityToast at the set duration time unless indeterminate */
         if(!xActivityToast.isIndeterminate()) {
 
-            Message message = obtainMessage(Messages.REMOVE);
-            message.obj = xActivityToast;
-            sendMessageDelayed(message, xActivityToast.getDuration() +
-                    getShowAnimation(xActivityToast).getDuration());
+            mScheduler.startTimer(xActivityToast,
+                    duration + getShowAnimation(xActivityToast).getDuration());
+
+            /* Shown while its activity is in the background */
+            if (mPauseWatcher.isPaused(xActivityToast.getActivity())) {
+
+                mScheduler.pauseTimer(xActivityToast, ToastClock.PAUSE_BACKGROUND);
+
+            }
 
         }
 
@@ -198,14 +613,41 @@ class ManagerXActivityToast extends Handler {
         /* If XActivityToast has been dismissed before it shows, do not attempt to show it */
         if(!xActivityToast.isShowing()) {
 
-            mList.remove(xActivityToast);
+            if (mScheduler.release(xActivityToast, false)) {
+
+                mFrameDispatcher.cancel(mFrameTarget, Messages.DISPLAY, xActivityToast);
+
+                mScheduler.promote();
+
+            } else {
+
+                mScheduler.dequeue(xActivityToast);
+
+            }
 
             return;
 
         }
 
-        /* If being called somewhere else get rid of delayed remove message */
-        removeMessages(Messages.REMOVE, xActivityToast);
+        /* If being called somewhere else get rid of the display timer */
+        mScheduler.cancelTimer(xActivityToast);
+
+        mFrameDispatcher.cancel(mFrameTarget, Messages.REMOVE, xActivityToast);
+
+        if (hideSuperToast(xActivityToast, true)) {
+
+            mScheduler.release(xActivityToast, true);
+
+        }
+
+    }
+
+    /**
+     * Plays the dismiss animation and removes the view, then shows the next XActivityToast.
+     * The OnDismissWrapper is only called if the XActivityToast was dismissed rather than
+     * interrupted. Returns false if it has no ViewGroup.
+     */
+    private boolean hideSuperToast(final XActivityToast xActivityToast, final boolean dismissed) {
 
         final ViewGroup viewGroup = xActivityToast.getViewGroup();
 
@@ -213,6 +655,8 @@ class ManagerXActivityToast extends Handler {
 
         if (viewGroup != null) {
 
+            ToastTrace.begin(ToastTrace.ACTIVITY_DISMISS_ANIMATION);
+
             Animation animation = getDismissAnimation(xActivityToast);
 
             animation.setAnimationListener(new Animation.AnimationListener() {
@@ -227,14 +671,21 @@ class ManagerXActivityToast extends Handler {
                 @Override
                 public void onAnimationEnd(Animation animation) {
 
-                    if(xActivityToast.getOnDismissWrapper() != null){
+                    if(dismissed && xActivityToast.getOnDismissWrapper() != null){
 
                         xActivityToast.getOnDismissWrapper().onDismiss(xActivityToast.getView());
 
                     }
 
+                    /* Shown again while it was leaving, the view is still needed */
+                    if (dismissed && !mScheduler.isPending(xActivityToast)) {
+
+                        xActivityToast.recycleView();
+
+                    }
+
                     /* Show the XActivityToast next in the list if any exist */
-                    ManagerXActivityToast.this.showNextSuperToast();
+                    mScheduler.promote();
 
                 }
 
@@ -248,12 +699,24 @@ class ManagerXActivityToast extends Handler {
 
             toastView.startAnimation(animation);
 
+            ToastTrace.end();
+
+            JankMonitor.getInstance().track(JankMonitor.Kind.XACTIVITYTOAST,
+                    xActivityToast.getType(), xActivityToast.getAnimations(),
+                    JankMonitor.Phase.DISMISS, animation.getDuration());
+
+            ToastTrace.begin(ToastTrace.ACTIVITY_REMOVE_VIEW);
+
             viewGroup.removeView(toastView);
 
-            mList.poll();
+            ToastTrace.end();
+
+            return true;
 
         }
 
+        return false;
+
     }
 
     /**
@@ -261,23 +724,25 @@ class ManagerXActivityToast extends Handler {
      */
     void cancelAllSuperActivityToasts() {
 
-        removeMessages(Messages.DISPLAY);
-        removeMessages(Messages.REMOVE);
+        removeMessages(Messages.DRAIN);
 
-        for (XActivityToast xActivityToast : mList) {
+        mFrameDispatcher.cancel(mFrameTarget);
 
-            if (xActivityToast.isShowing()) {
+        mInbox.clear();
+        mDrainPending.set(false);
 
-                xActivityToast.getViewGroup().removeView(
-                        xActivityToast.getView());
+        final XActivityToast current = getCurrent();
 
-                xActivityToast.getViewGroup().invalidate();
+        if (current != null && current.isShowing()) {
 
-            }
+            current.getViewGroup().removeView(
+                    current.getView());
+
+            current.getViewGroup().invalidate();
 
         }
 
-        mList.clear();
+        mScheduler.clear();
 
     }
 
@@ -286,7 +751,29 @@ class ManagerXActivityToast extends Handler {
      */
     void cancelAllSuperActivityToastsForActivity(Activity activity) {
 
-        Iterator<XActivityToast> superActivityToastIterator = mList
+        /* SuperActivityToasts still in the inbox belong to the activity too */
+        drainInbox();
+
+        final XActivityToast current = getCurrent();
+
+        if (current != null && current.getActivity() != null
+                && current.getActivity().equals(activity)) {
+
+            if (current.isShowing()) {
+
+                current.getViewGroup().removeView(
+                        current.getView());
+
+            }
+
+            mFrameDispatcher.cancel(mFrameTarget, Messages.DISPLAY, current);
+            mFrameDispatcher.cancel(mFrameTarget, Messages.REMOVE, current);
+
+            mScheduler.release(current, false);
+
+        }
+
+        Iterator<XActivityToast> superActivityToastIterator = mScheduler
                 .iterator();
 
         while (superActivityToastIterator.hasNext()) {
@@ -304,23 +791,41 @@ class ManagerXActivityToast extends Handler {
 
                 }
 
-                removeMessages(Messages.DISPLAY, xActivityToast);
-                removeMessages(Messages.REMOVE, xActivityToast);
-
                 superActivityToastIterator.remove();
 
             }
 
         }
 
+        mScheduler.promote();
+
     }
 
     /**
-     * Used in XActivityToast saveState().
+     * Used in XActivityToast saveState(). The showing XActivityToast comes first, followed by
+     * the pending ones in the order they would be shown.
      */
     LinkedList<XActivityToast> getList(){
 
-        return mList;
+        drainInbox();
+
+        final LinkedList<XActivityToast> list = new LinkedList<XActivityToast>();
+
+        final XActivityToast current = getCurrent();
+
+        if (current != null) {
+
+            list.add(current);
+
+        }
+
+        for (XActivityToast xActivityToast : mScheduler) {
+
+            list.add(xActivityToast);
+
+        }
+
+        return list;
 
     }
 
@@ -13,9 +13,14 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package com.szhynet.widget.xtoast;
 
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.szhynet.widget.xtoast.utils.RateLimiter;
+
 import java.util.LinkedList;
 
 /**
@@ -26,50 +31,228 @@ class ManagerXCardToast {
     @SuppressWarnings("UnusedDeclaration")
     private static final String TAG = "ManagerXCardToast";
 
-    private static ManagerXCardToast mManagerXCardToast;
+    /* Lazily created on first use without taking a lock */
+    private static final class Holder {
+
+        private static final ManagerXCardToast INSTANCE = new ManagerXCardToast();
+
+    }
+
+    /* SuperCardToasts all show at once, every one gets a slot straight away */
+    private final ToastScheduler<XCardToast> mScheduler;
+
+    private final ToastScheduler.Callback<XCardToast> mSchedulerCallback =
+            new ToastScheduler.Callback<XCardToast>() {
+
+        @Override
+        public ToastHandle getHandle(XCardToast xCardToast) {
+
+            return xCardToast.getHandle();
+
+        }
+
+        @Override
+        public int getLane(XCardToast xCardToast) {
+
+            return 0;
+
+        }
+
+        @Override
+        public String getKey(XCardToast xCardToast) {
+
+            return xCardToast.getType().name() + '\u0000' + xCardToast.getText();
+
+        }
+
+        @Override
+        public long getDeadline(XCardToast xCardToast) {
+
+            return 0;
+
+        }
+
+        @Override
+        public void onShow(XCardToast xCardToast) {
+
+            /* The XCardToast adds itself to its ViewGroup */
+
+        }
+
+        @Override
+        public boolean onCoalesce(XCardToast xCardToast, boolean showing) {
 
-    private final LinkedList<XCardToast> mList;
+            /* SuperCardToasts are never merged, a rate limited duplicate is dropped */
+            return false;
+
+        }
+
+        @Override
+        public void onCollapse(XCardToast xCardToast) {
+
+            /* The queue is unbounded */
+
+        }
+
+        @Override
+        public void onDrop(XCardToast xCardToast) {
+
+            if (xCardToast.getOnDismissWrapper() != null) {
+
+                xCardToast.getOnDismissWrapper().onDismiss(xCardToast.getView());
+
+            }
+
+        }
+
+        @Override
+        public void onTimeUp(XCardToast xCardToast) {
+
+            xCardToast.dismiss();
+
+        }
+
+    };
+
+    private final ActivityPauseWatcher mPauseWatcher = new ActivityPauseWatcher() {
+
+        @Override
+        void onPaused(Activity activity) {
+
+            for (int i = 0; i < mScheduler.getShowingCount(); i++) {
+
+                final XCardToast xCardToast = mScheduler.getShowing(i);
+
+                if (xCardToast.getActivity() == activity) {
+
+                    mScheduler.pauseTimer(xCardToast, ToastClock.PAUSE_BACKGROUND);
+
+                }
+
+            }
+
+        }
+
+        @Override
+        void onResumed(Activity activity) {
+
+            for (int i = 0; i < mScheduler.getShowingCount(); i++) {
+
+                final XCardToast xCardToast = mScheduler.getShowing(i);
+
+                if (xCardToast.getActivity() == activity) {
+
+                    mScheduler.resumeTimer(xCardToast, ToastClock.PAUSE_BACKGROUND);
+
+                }
+
+            }
+
+        }
+
+    };
 
     private ManagerXCardToast() {
 
-        mList = new LinkedList<XCardToast>();
+        final MainThreadExecutor executor =
+                new MainThreadExecutor(new Handler(Looper.getMainLooper()));
+
+        mScheduler = new ToastScheduler<XCardToast>(1, executor, executor, mSchedulerCallback);
+
+        mScheduler.setSlots(Integer.MAX_VALUE);
 
     }
 
     /**
      * Singleton method to ensure all SuperCardToasts are passed through the same manager.
      */
-    protected static synchronized ManagerXCardToast getInstance() {
+    protected static ManagerXCardToast getInstance() {
 
-        if (mManagerXCardToast != null) {
+        return Holder.INSTANCE;
 
-            return mManagerXCardToast;
+    }
 
-        } else {
+    /**
+     * Add a XCardToast to the list. Returns false if the XCardToast exceeds the rate limit
+     * and should not be shown.
+     */
+    boolean add(XCardToast xCardToast) {
 
-            mManagerXCardToast = new ManagerXCardToast();
+        if (!mScheduler.offer(xCardToast)) {
 
-            return mManagerXCardToast;
+            return false;
 
         }
 
+        mPauseWatcher.watch(xCardToast.getActivity());
+
+        return true;
+
+    }
+
+    /**
+     * Lifecycle metrics of all SuperCardToasts.
+     */
+    ToastMetrics getMetrics() {
+
+        return mScheduler.getMetrics();
+
+    }
+
+    void setOnMetricsEventListener(ToastMetrics.OnEventListener onEventListener) {
+
+        mScheduler.getMetrics().setOnEventListener(onEventListener);
+
     }
 
     /**
-     * Add a XCardToast to the list.
+     * Limits how fast SuperCardToasts are accepted, null removes the limit.
      */
-    void add(XCardToast xCardToast) {
+    void setRateLimiter(RateLimiter rateLimiter) {
 
-        mList.add(xCardToast);
+        mScheduler.setRateLimiter(rateLimiter);
 
     }
 
     /**
-     * Removes a XCardToast from the list.
+     * Dismisses a XCardToast after its duration, not counting the time its activity is paused
+     * or the user touches it.
+     */
+    void startTimer(XCardToast xCardToast, long duration) {
+
+        mScheduler.startTimer(xCardToast, duration);
+
+        if (mPauseWatcher.isPaused(xCardToast.getActivity())) {
+
+            mScheduler.pauseTimer(xCardToast, ToastClock.PAUSE_BACKGROUND);
+
+        }
+
+    }
+
+    /**
+     * Pauses the display time of a XCardToast while the user touches it.
+     */
+    void onTouchChanged(XCardToast xCardToast, boolean touching) {
+
+        if (touching) {
+
+            mScheduler.pauseTimer(xCardToast, ToastClock.PAUSE_TOUCH);
+
+        } else {
+
+            mScheduler.resumeTimer(xCardToast, ToastClock.PAUSE_TOUCH);
+
+        }
+
+    }
+
+    /**
+     * Removes a XCardToast from the list and stops its timer.
      */
     void remove(XCardToast xCardToast) {
 
-        mList.remove(xCardToast);
+        mScheduler.release(xCardToast, true);
 
     }
 
@@ -78,7 +261,9 @@ class ManagerXCardToast {
      */
     void cancelAllSuperActivityToasts() {
 
-        for (XCardToast xCardToast : mList) {
+        for (int i = 0; i < mScheduler.getShowingCount(); i++) {
+
+            final XCardToast xCardToast = mScheduler.getShowing(i);
 
             if (xCardToast.isShowing()) {
 
@@ -91,7 +276,7 @@ class ManagerXCardToast {
 
         }
 
-        mList.clear();
+        mScheduler.clear();
 
     }
 
@@ -100,7 +285,15 @@ class ManagerXCardToast {
      */
     LinkedList<XCardToast> getList() {
 
-        return mList;
+        final LinkedList<XCardToast> list = new LinkedList<XCardToast>();
+
+        for (int i = 0; i < mScheduler.getShowingCount(); i++) {
+
+            list.add(mScheduler.getShowing(i));
+
+        }
+
+        return list;
 
     }
 
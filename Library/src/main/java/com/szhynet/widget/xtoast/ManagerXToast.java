@@ -16,13 +16,27 @@
 
 package com.szhynet.widget.xtoast;
 
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.PixelFormat;
 import android.os.Handler;
+import android.os.Looper;
 import android.os.Message;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.Gravity;
 import android.view.View;
+import android.view.ViewGroup;
 import android.view.WindowManager;
+import android.view.animation.Animation;
+import android.view.animation.AnimationUtils;
+import android.widget.FrameLayout;
 
-import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
+import com.szhynet.widget.xtoast.utils.RateLimiter;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /* Manages the life of a XToast. Initially copied from the Crouton library */
 public class ManagerXToast extends Handler {
@@ -30,6 +44,15 @@ public class ManagerXToast extends Handler {
     @SuppressWarnings("UnusedDeclaration")
     private static final String TAG = "ManagerXToast";
 
+    private static final String WARNING_ANIMATION = " - Could not read the window animations, using the default duration.";
+
+    /* Used when the windowAnimations style can not be read */
+    private static final long DEFAULT_ANIMATION_DURATION = 500;
+
+    /* Attributes must be sorted for obtainStyledAttributes */
+    private static final int[] WINDOW_ANIMATION_ATTRS = {android.R.attr.windowEnterAnimation,
+            android.R.attr.windowExitAnimation};
+
     /* Potential messages for the handler to send **/
     private static final class Messages {
 
@@ -37,118 +60,500 @@ public class ManagerXToast extends Handler {
         private static final int DISPLAY_SUPERTOAST = 0x445354;
         private static final int ADD_SUPERTOAST = 0x415354;
         private static final int REMOVE_SUPERTOAST = 0x525354;
+        private static final int DRAIN_INBOX = 0x44524E;
+        private static final int TEARDOWN_WINDOW = 0x545357;
 
     }
 
-    private static ManagerXToast mManagerXToast;
+    /* Lazily created on first use without taking a lock */
+    private static final class Holder {
+
+        private static final ManagerXToast INSTANCE = new ManagerXToast();
+
+    }
+
+    /* Queue, stack slots, handles, time to live and display timers */
+    private final ToastScheduler<XToast> mScheduler;
+
+    /* XToasts shown from any thread wait here until the main thread drains them */
+    private final ConcurrentLinkedQueue<XToast> mInbox = new ConcurrentLinkedQueue<XToast>();
+    private final AtomicBoolean mDrainPending = new AtomicBoolean();
+
+    /* Window operations are applied together at the start of the next frame */
+    private final FrameDispatcher mFrameDispatcher = FrameDispatcher.getInstance();
+
+    private final FrameDispatcher.Target mFrameTarget = new FrameDispatcher.Target() {
+
+        @Override
+        public void doFrameOperation(int operation, Object object) {
+
+            if (operation == Messages.ADD_SUPERTOAST) {
+
+                displaySuperToast((XToast) object);
+
+            } else if (operation == Messages.REMOVE_SUPERTOAST) {
+
+                removeSuperToast((XToast) object);
+
+            }
+
+        }
+
+    };
+
+    private final ToastScheduler.Callback<XToast> mSchedulerCallback =
+            new ToastScheduler.Callback<XToast>() {
+
+        @Override
+        public ToastHandle getHandle(XToast xToast) {
+
+            return xToast.getHandle();
+
+        }
+
+        @Override
+        public int getLane(XToast xToast) {
+
+            return xToast.getPriority().ordinal();
+
+        }
+
+        @Override
+        public String getKey(XToast xToast) {
+
+            return xToast.getCoalesceKey();
+
+        }
+
+        @Override
+        public long getDeadline(XToast xToast) {
+
+            return xToast.getDeadline();
+
+        }
+
+        @Override
+        public void onShow(XToast xToast) {
+
+            mFrameDispatcher.post(mFrameTarget, Messages.ADD_SUPERTOAST, xToast);
+
+        }
+
+        @Override
+        public boolean onCoalesce(XToast xToast, boolean showing) {
+
+            xToast.coalesce();
+
+            /* Restart the display time of the showing XToast */
+            if (showing && xToast.isShowing()) {
+
+                restartDisplayTime(xToast);
+
+            }
+
+            return true;
+
+        }
+
+        @Override
+        public void onCollapse(XToast xToast) {
 
-    private final Queue<XToast> mQueue;
+            xToast.collapse();
+
+        }
+
+        @Override
+        public void onDrop(XToast xToast) {
+
+            dropSuperToast(xToast);
+
+        }
+
+        @Override
+        public void onTimeUp(XToast xToast) {
+
+            /* The display time is up, remove it with the rest of the next frame */
+            mFrameDispatcher.post(mFrameTarget, Messages.REMOVE_SUPERTOAST, xToast);
+
+        }
+
+    };
+
+    /* Moves the stacked XToasts when one of them changes height */
+    private final View.OnLayoutChangeListener mStackListener = new View.OnLayoutChangeListener() {
+
+        @Override
+        public void onLayoutChange(View view, int left, int top, int right, int bottom,
+                                   int oldLeft, int oldTop, int oldRight, int oldBottom) {
+
+            if (bottom - top != oldBottom - oldTop) {
+
+                reflowStack();
+
+            }
+
+        }
+
+    };
+
+    private int mStackSpacing = -1;
+
+    /* Enter and exit animations of each windowAnimations style, read once */
+    private final SparseArray<WindowAnimations> mWindowAnimations =
+            new SparseArray<WindowAnimations>();
+
+    /* One overlay window hosting every XToast while the shared window mode is on */
+    private boolean mSharedWindow;
+    private long mIdleTimeout;
+    private FrameLayout mHost;
+    private WindowManager mHostWindowManager;
 
     /* Private method to create a new list if the manager is being initialized */
     private ManagerXToast() {
 
-        mQueue = new LinkedBlockingQueue<XToast>();
+        super(Looper.getMainLooper());
+
+        final MainThreadExecutor executor = new MainThreadExecutor(this);
+
+        mScheduler = new ToastScheduler<XToast>(XToast.Priority.values().length,
+                executor, executor, mSchedulerCallback);
 
     }
 
     /* Singleton method to ensure all SuperToasts are passed through the same manager */
-    protected static synchronized ManagerXToast getInstance() {
+    protected static ManagerXToast getInstance() {
+
+        return Holder.INSTANCE;
 
-        if (mManagerXToast != null) {
+    }
+
+    /* Hands a XToast to the main thread, safe to call from any thread */
+    protected void add(XToast xToast) {
 
-            return mManagerXToast;
+        mInbox.offer(xToast);
 
-        } else {
+        if (Looper.myLooper() == getLooper()) {
 
-            mManagerXToast = new ManagerXToast();
+            drainInbox();
 
-            return mManagerXToast;
+        } else if (mDrainPending.compareAndSet(false, true)) {
+
+            /* One message drains every XToast offered before it is handled */
+            sendEmptyMessage(Messages.DRAIN_INBOX);
 
         }
 
     }
 
-    /* Add XToast to queue and try to show it */
-    protected void add(XToast xToast) {
+    /* Moves everything in the inbox into the queue, main thread only */
+    private void drainInbox() {
 
-        /* Add XToast to queue and try to show it */
-        mQueue.add(xToast);
-        this.showNextSuperToast();
+        /* Cleared first so an offer racing with the drain schedules another one */
+        mDrainPending.set(false);
 
-    }
+        XToast xToast;
 
-    /* Shows the next XToast in the list */
-    private void showNextSuperToast() {
+        while ((xToast = mInbox.poll()) != null) {
 
-        if (mQueue.isEmpty()) {
+            enqueue(xToast);
 
-            /* There is no XToast to display next */
+        }
+
+    }
+
+    /* Add XToast to its priority lane and try to show it */
+    private void enqueue(XToast xToast) {
+
+        /* Already showing or pending, the scheduler refuses it and its state must stay */
+        if (mScheduler.indexOf(xToast) >= 0 || mScheduler.isPending(xToast)) {
 
             return;
 
         }
 
-        /* Get next XToast in the queue */
-        final XToast xToast = mQueue.peek();
+        xToast.prepareToShow();
+
+        mScheduler.offer(xToast);
+
+    }
+
+    /* Cancels the pending or showing XToast of a handle */
+    protected boolean cancel(ToastHandle handle) {
+
+        drainInbox();
+
+        final XToast xToast = mScheduler.get(handle);
+
+        if (xToast == null) {
+
+            return false;
+
+        }
+
+        removeSuperToast(xToast);
+
+        return true;
+
+    }
+
+    /* Returns true while the XToast of a handle is pending or showing */
+    protected boolean isQueued(ToastHandle handle) {
+
+        drainInbox();
+
+        return mScheduler.get(handle) != null;
+
+    }
+
+    /* Updates the text of the pending or showing XToast of a handle and its coalesce key */
+    protected boolean update(ToastHandle handle, CharSequence text) {
+
+        drainInbox();
+
+        final XToast xToast = mScheduler.get(handle);
+
+        if (xToast == null) {
+
+            return false;
+
+        }
+
+        xToast.updateText(text);
+
+        return refresh(xToast);
+
+    }
+
+    /* Applies setter changes to a pending or showing XToast in place. The window is only
+     * relaid out if its params changed */
+    protected boolean refresh(XToast xToast) {
+
+        drainInbox();
+
+        final int index = mScheduler.indexOf(xToast);
+
+        if (index < 0 && !mScheduler.isPending(xToast)) {
+
+            return false;
+
+        }
+
+        mScheduler.rekey(xToast, xToast.getCoalesceKey());
+
+        if (index < 0) {
+
+            xToast.updateWindowManagerParams();
+
+            return true;
+
+        }
+
+        boolean changed = xToast.updateWindowManagerParams();
 
-        /* Show XToast if none are showing (not sure why this works but it does) */
         if (!xToast.isShowing()) {
 
-            final Message message = obtainMessage(Messages.ADD_SUPERTOAST);
-            message.obj = xToast;
-            sendMessage(message);
+            /* Still waiting for its frame, the new params are used when it is added */
+            return true;
 
-        } else {
+        }
+
+        final WindowManager.LayoutParams params = xToast.getWindowManagerParams();
+
+        final int y = xToast.getYOffset() + getStackOffset(index);
+
+        if (params.y != y) {
+
+            params.y = y;
+
+            changed = true;
+
+        }
 
-            sendMessageDelayed(xToast, Messages.DISPLAY_SUPERTOAST,
-                    getDuration(xToast));
+        if (changed) {
+
+            applyWindowParams(xToast);
+
+            /* A new gravity moves the XToast to another stack */
+            reflowStack();
 
         }
 
+        restartDisplayTime(xToast);
+
+        return true;
+
     }
 
-    /* Show/dismiss a XToast after a specific duration */
-    private void sendMessageDelayed(XToast xToast, final int messageId, final long delay) {
+    /* Restarts the display time of a showing XToast with its current duration */
+    private void restartDisplayTime(XToast xToast) {
 
-        Message message = obtainMessage(messageId);
-        message.obj = xToast;
-        sendMessageDelayed(message, delay);
+        mFrameDispatcher.cancel(mFrameTarget, Messages.REMOVE_SUPERTOAST, xToast);
+
+        mScheduler.startTimer(xToast, xToast.getDuration());
+
+    }
+
+    /* Bounds the number of pending XToasts, zero means unbounded */
+    protected void setMaxQueueSize(int maxQueueSize, XToast.OverflowPolicy overflowPolicy) {
+
+        mScheduler.setMaxQueueSize(maxQueueSize, overflowPolicy.mSchedulerPolicy);
+
+    }
+
+    /* Number of XToasts dropped because their time to live ran out while queued */
+    protected long getExpiredCount() {
+
+        return mScheduler.getExpiredCount();
+
+    }
+
+    /* Lifecycle metrics of all XToasts */
+    protected ToastMetrics getMetrics() {
+
+        return mScheduler.getMetrics();
+
+    }
+
+    protected void setOnMetricsEventListener(ToastMetrics.OnEventListener onEventListener) {
+
+        mScheduler.getMetrics().setOnEventListener(onEventListener);
+
+    }
+
+    /* Limits how fast XToasts are accepted, null removes the limit */
+    protected void setRateLimiter(RateLimiter rateLimiter) {
+
+        mScheduler.setRateLimiter(rateLimiter);
+
+    }
+
+    /* A XToast that will never be shown still notifies its dismiss listener */
+    private void dropSuperToast(XToast xToast) {
+
+        if (xToast.getOnDismissListener() != null) {
+
+            xToast.getOnDismissListener().onDismiss(xToast.getView());
+
+        }
+
+    }
+
+    /* Enables merging of XToasts that share a coalesce key */
+    protected void setCoalescing(boolean coalescing) {
+
+        mScheduler.setCoalescing(coalescing);
+
+    }
+
+    /* Sets how many higher priority toasts may jump ahead of a waiting lower priority one */
+    protected void setFairness(int fairness) {
+
+        mScheduler.setFairness(fairness);
+
+    }
+
+    /* Sets how many XToasts may show at once and fills any new slots */
+    protected void setStackSize(int stackSize) {
+
+        mScheduler.setSlots(stackSize);
+
+    }
+
+    /* Offset of a showing XToast from its own position, the height of the earlier XToasts
+     * with the same gravity. Stacks are a handful of XToasts so the scan is cheap */
+    private int getStackOffset(int index) {
+
+        final int gravity = mScheduler.getShowing(index).getWindowManagerParams().gravity;
+
+        int offset = 0;
+
+        for (int i = 0; i < index; i++) {
+
+            final XToast earlier = mScheduler.getShowing(i);
+
+            if (earlier.isShowing() && earlier.getWindowManagerParams().gravity == gravity) {
+
+                offset += earlier.getView().getHeight() + getStackSpacing(earlier);
+
+            }
+
+        }
+
+        return offset;
+
+    }
+
+    private int getStackSpacing(XToast xToast) {
+
+        if (mStackSpacing < 0) {
+
+            mStackSpacing = xToast.getView().getResources()
+                    .getDimensionPixelSize(R.dimen.toast_stack_spacing);
+
+        }
+
+        return mStackSpacing;
 
     }
 
-    /* Get duration and add one second to compensate for show/hide animations */
-    private long getDuration(XToast xToast) {
+    /* Moves the showing XToasts to their stack positions, only touching windows that move */
+    private void reflowStack() {
+
+        for (int i = 0; i < mScheduler.getShowingCount(); i++) {
+
+            final XToast xToast = mScheduler.getShowing(i);
+
+            if (!xToast.isShowing()) {
+
+                continue;
+
+            }
+
+            final WindowManager.LayoutParams params = xToast.getWindowManagerParams();
+
+            final int y = xToast.getYOffset() + getStackOffset(i);
 
-        long duration = xToast.getDuration();
-        duration += 1000;
+            if (params.y != y) {
 
-        return duration;
+                params.y = y;
+
+                applyWindowParams(xToast);
+
+            }
+
+        }
+
+    }
+
+    /* Show the next XToast after a specific duration */
+    private void sendMessageDelayed(XToast xToast, final int messageId, final long delay) {
+
+        Message message = obtainMessage(messageId);
+        message.obj = xToast;
+        sendMessageDelayed(message, delay);
 
     }
 
     @Override
     public void handleMessage(Message message) {
 
-        final XToast xToast = (XToast)
-                message.obj;
-
         switch (message.what) {
 
             case Messages.DISPLAY_SUPERTOAST:
 
-                showNextSuperToast();
+                mScheduler.promote();
 
                 break;
 
-            case Messages.ADD_SUPERTOAST:
+            case Messages.DRAIN_INBOX:
 
-                displaySuperToast(xToast);
+                drainInbox();
 
                 break;
 
-            case Messages.REMOVE_SUPERTOAST:
+            case Messages.TEARDOWN_WINDOW:
 
-                removeSuperToast(xToast);
+                teardownWindow(false);
 
                 break;
 
@@ -183,33 +588,349 @@ public class ManagerXToast extends Handler {
         final WindowManager.LayoutParams params = xToast
                 .getWindowManagerParams();
 
+        final WindowAnimations windowAnimations = getWindowAnimations(xToast);
+
         if(windowManager != null) {
 
-            windowManager.addView(toastView, params);
+            params.y = xToast.getYOffset() + getStackOffset(mScheduler.indexOf(xToast));
+
+            toastView.addOnLayoutChangeListener(mStackListener);
+
+            ToastTrace.begin(ToastTrace.XTOAST_ADD_VIEW);
+
+            try {
+
+                if (mSharedWindow) {
+
+                    addToHost(xToast, windowManager, windowAnimations);
+
+                } else {
+
+                    windowManager.addView(toastView, params);
+
+                }
+
+            } finally {
+
+                ToastTrace.end();
+
+            }
+
+            /* A window of its own animates outside the frames of this process */
+            if (isHosted(xToast)) {
+
+                JankMonitor.getInstance().track(JankMonitor.Kind.XTOAST, XToast.Type.STANDARD,
+                        xToast.getAnimations(), JankMonitor.Phase.SHOW,
+                        windowAnimations.mEnterDuration);
+
+            }
+
+        }
+
+        /* The duration starts once the enter animation has finished */
+        mScheduler.startTimer(xToast, xToast.getDuration() + windowAnimations.mEnterDuration);
+
+    }
+
+    /* Keeps one overlay window alive between XToasts, torn down after the idle timeout */
+    protected void setSharedWindow(boolean sharedWindow, long idleTimeout) {
+
+        this.mSharedWindow = sharedWindow;
+        this.mIdleTimeout = Math.max(0, idleTimeout);
+
+        if (!sharedWindow) {
+
+            scheduleTeardown();
+
+        }
+
+    }
+
+    /* Adds a XToast to the shared window, creating the window if needed */
+    private void addToHost(XToast xToast, WindowManager windowManager,
+                           WindowAnimations windowAnimations) {
+
+        removeMessages(Messages.TEARDOWN_WINDOW);
+
+        if (mHost == null) {
+
+            final WindowManager.LayoutParams hostParams = new WindowManager.LayoutParams();
+
+            hostParams.width = WindowManager.LayoutParams.MATCH_PARENT;
+            hostParams.height = WindowManager.LayoutParams.MATCH_PARENT;
+            /* No FLAG_KEEP_SCREEN_ON, the window outlives its XToasts until the idle timeout */
+            hostParams.flags = WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
+                    | WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE;
+            hostParams.format = PixelFormat.TRANSLUCENT;
+            hostParams.type = WindowManager.LayoutParams.TYPE_TOAST;
+
+            mHost = new FrameLayout(xToast.getView().getContext().getApplicationContext());
+            mHostWindowManager = windowManager;
+
+            mHostWindowManager.addView(mHost, hostParams);
+
+        }
+
+        final View toastView = xToast.getView();
+
+        mHost.addView(toastView, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                xToast.getWindowManagerParams().gravity));
+
+        positionInHost(xToast);
+
+        if (windowAnimations.mEnter != 0) {
+
+            ToastTrace.begin(ToastTrace.XTOAST_SHOW_ANIMATION);
+
+            toastView.startAnimation(AnimationUtils.loadAnimation(toastView.getContext(),
+                    windowAnimations.mEnter));
+
+            ToastTrace.end();
+
+        }
+
+    }
+
+    /* Offsets a hosted XToast the way the window manager offsets a window with gravity */
+    private static void positionInHost(XToast xToast) {
+
+        final WindowManager.LayoutParams params = xToast.getWindowManagerParams();
+
+        final View toastView = xToast.getView();
+
+        final FrameLayout.LayoutParams layoutParams =
+                (FrameLayout.LayoutParams) toastView.getLayoutParams();
+
+        if (layoutParams.gravity != params.gravity) {
+
+            layoutParams.gravity = params.gravity;
+
+            toastView.setLayoutParams(layoutParams);
+
+        }
+
+        /* Translation only redraws, moving a XToast in the stack needs no layout pass */
+        toastView.setTranslationX((params.gravity & Gravity.HORIZONTAL_GRAVITY_MASK)
+                == Gravity.RIGHT ? -params.x : params.x);
+        toastView.setTranslationY((params.gravity & Gravity.VERTICAL_GRAVITY_MASK)
+                == Gravity.BOTTOM ? -params.y : params.y);
+
+    }
+
+    /* Removes a XToast from the shared window, the exit animation keeps drawing it */
+    private void removeFromHost(XToast xToast) {
+
+        final View toastView = xToast.getView();
+
+        final int exit = getWindowAnimations(xToast).mExit;
+
+        if (exit != 0) {
+
+            ToastTrace.begin(ToastTrace.XTOAST_DISMISS_ANIMATION);
+
+            toastView.startAnimation(AnimationUtils.loadAnimation(toastView.getContext(), exit));
+
+            ToastTrace.end();
+
+        }
+
+        mHost.removeView(toastView);
+
+        if (mScheduler.isIdle()) {
+
+            scheduleTeardown();
 
         }
 
-        sendMessageDelayed(xToast, Messages.REMOVE_SUPERTOAST,
-                xToast.getDuration() + 500);
+    }
+
+    private boolean isHosted(XToast xToast) {
+
+        return mHost != null && xToast.getView().getParent() == mHost;
+
+    }
+
+    private void scheduleTeardown() {
+
+        if (mHost != null) {
+
+            removeMessages(Messages.TEARDOWN_WINDOW);
+            sendEmptyMessageDelayed(Messages.TEARDOWN_WINDOW, mIdleTimeout);
+
+        }
+
+    }
+
+    /* Removes the shared window once it has been idle, unless a XToast arrived meanwhile */
+    private void teardownWindow(boolean force) {
+
+        if (mHost == null || (!force && mHost.getChildCount() > 0)) {
+
+            return;
+
+        }
+
+        mHost.removeAllViews();
+
+        mHostWindowManager.removeView(mHost);
+
+        mHost = null;
+        mHostWindowManager = null;
+
+    }
+
+    /* Moves a showing XToast to its current params, in the shared window or its own */
+    private void applyWindowParams(XToast xToast) {
+
+        if (isHosted(xToast)) {
+
+            positionInHost(xToast);
+
+        } else {
+
+            xToast.getWindowManager().updateViewLayout(xToast.getView(),
+                    xToast.getWindowManagerParams());
+
+        }
+
+    }
+
+    /* Returns the enter and exit animations of the windowAnimations style of a XToast */
+    private WindowAnimations getWindowAnimations(XToast xToast) {
+
+        final int style = xToast.getWindowManagerParams().windowAnimations;
+
+        WindowAnimations windowAnimations = mWindowAnimations.get(style);
+
+        if (windowAnimations != null) {
+
+            return windowAnimations;
+
+        }
+
+        windowAnimations = new WindowAnimations();
+
+        final Context context = xToast.getView().getContext();
+
+        try {
+
+            final TypedArray typedArray = context.obtainStyledAttributes(style,
+                    WINDOW_ANIMATION_ATTRS);
+
+            windowAnimations.mEnter = typedArray.getResourceId(0, 0);
+            windowAnimations.mExit = typedArray.getResourceId(1, 0);
+
+            typedArray.recycle();
+
+            windowAnimations.mEnterDuration = getAnimationDuration(context,
+                    windowAnimations.mEnter);
+            windowAnimations.mExitDuration = getAnimationDuration(context,
+                    windowAnimations.mExit);
+
+        } catch (Resources.NotFoundException e) {
+
+            Log.w(TAG, "getWindowAnimations()" + WARNING_ANIMATION);
+
+            windowAnimations.mEnter = 0;
+            windowAnimations.mExit = 0;
+            windowAnimations.mEnterDuration = DEFAULT_ANIMATION_DURATION;
+            windowAnimations.mExitDuration = DEFAULT_ANIMATION_DURATION;
+
+        }
+
+        mWindowAnimations.put(style, windowAnimations);
+
+        return windowAnimations;
+
+    }
+
+    /* Loads an animation resource once to measure it, zero if there is none */
+    private static long getAnimationDuration(Context context, int animationResource) {
+
+        if (animationResource == 0) {
+
+            return 0;
+
+        }
+
+        final Animation animation = AnimationUtils.loadAnimation(context, animationResource);
+
+        return animation.computeDurationHint();
+
+    }
+
+    /* Animation resources and durations of a windowAnimations style */
+    private static final class WindowAnimations {
+
+        private int mEnter;
+        private int mExit;
+        private long mEnterDuration;
+        private long mExitDuration;
 
     }
 
     /* Hide and remove the XToast */
     protected void removeSuperToast(XToast xToast) {
 
+        if (!mScheduler.release(xToast, xToast.isShowing())) {
+
+            /* Dismissed while still waiting in the queue */
+            mScheduler.dequeue(xToast);
+
+            return;
+
+        }
+
+        mFrameDispatcher.cancel(mFrameTarget, Messages.ADD_SUPERTOAST, xToast);
+        mFrameDispatcher.cancel(mFrameTarget, Messages.REMOVE_SUPERTOAST, xToast);
+
         final WindowManager windowManager = xToast
                 .getWindowManager();
 
         final View toastView = xToast.getView();
 
-        if (windowManager != null) {
+        toastView.removeOnLayoutChangeListener(mStackListener);
+
+        if (windowManager != null && xToast.isShowing()) {
+
+            final boolean hosted = isHosted(xToast);
+
+            ToastTrace.begin(ToastTrace.XTOAST_REMOVE_VIEW);
+
+            try {
 
-            mQueue.poll();
+                if (hosted) {
 
-            windowManager.removeView(toastView);
+                    removeFromHost(xToast);
 
-            sendMessageDelayed(xToast,
-                    Messages.DISPLAY_SUPERTOAST, 500);
+                } else {
+
+                    /* removeView() detaches later, the view must be free before it is pooled */
+                    windowManager.removeViewImmediate(toastView);
+
+                }
+
+            } finally {
+
+                ToastTrace.end();
+
+            }
+
+            /* Close the gap left in the stack */
+            reflowStack();
+
+            final long exitDuration = getWindowAnimations(xToast).mExitDuration;
+
+            if (hosted) {
+
+                JankMonitor.getInstance().track(JankMonitor.Kind.XTOAST, XToast.Type.STANDARD,
+                        xToast.getAnimations(), JankMonitor.Phase.DISMISS, exitDuration);
+
+            }
+
+            /* Show the next XToast once the exit animation has finished */
+            sendMessageDelayed(xToast, Messages.DISPLAY_SUPERTOAST, exitDuration);
 
             if(xToast.getOnDismissListener() != null) {
 
@@ -217,6 +938,17 @@ public class ManagerXToast extends Handler {
 
             }
 
+            /* Shown again while it was leaving, the view is still needed */
+            if (!mScheduler.isPending(xToast)) {
+
+                xToast.recycleView();
+
+            }
+
+        } else {
+
+            mScheduler.promote();
+
         }
 
     }
@@ -224,13 +956,21 @@ public class ManagerXToast extends Handler {
     /* Cancels/removes all showing pending SuperToasts */
     protected void cancelAllSuperToasts() {
 
-        removeMessages(Messages.ADD_SUPERTOAST);
         removeMessages(Messages.DISPLAY_SUPERTOAST);
-        removeMessages(Messages.REMOVE_SUPERTOAST);
+        removeMessages(Messages.DRAIN_INBOX);
 
-        for (XToast xToast : mQueue) {
+        mInbox.clear();
+        mDrainPending.set(false);
 
-            if (xToast.isShowing()) {
+        mFrameDispatcher.cancel(mFrameTarget);
+
+        for (int i = 0; i < mScheduler.getShowingCount(); i++) {
+
+            final XToast xToast = mScheduler.getShowing(i);
+
+            xToast.getView().removeOnLayoutChangeListener(mStackListener);
+
+            if (xToast.isShowing() && !isHosted(xToast)) {
 
                 xToast.getWindowManager().removeView(
                         xToast.getView());
@@ -239,7 +979,11 @@ public class ManagerXToast extends Handler {
 
         }
 
-        mQueue.clear();
+        removeMessages(Messages.TEARDOWN_WINDOW);
+
+        teardownWindow(true);
+
+        mScheduler.clear();
 
     }
 
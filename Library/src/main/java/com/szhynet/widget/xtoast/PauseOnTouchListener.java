@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Reports when the user starts and stops touching a toast so its timer can be paused, then
+ * passes the event on to the touch-to-dismiss or swipe-to-dismiss listener. Only active while
+ * such a listener is set, the down event is then consumed so the rest of the gesture arrives
+ * here. Without one touches pass through to the views below the toast.
+ */
+final class PauseOnTouchListener implements View.OnTouchListener {
+
+    /**
+     * Receives the touch state of the toast.
+     */
+    interface Callback {
+
+        void onTouchChanged(boolean touching);
+
+    }
+
+    private final Callback mCallback;
+
+    private volatile View.OnTouchListener mDelegate;
+
+    PauseOnTouchListener(Callback callback) {
+
+        this.mCallback = callback;
+
+    }
+
+    /**
+     * Sets the listener that handles the touch itself, null for none.
+     */
+    void setDelegate(View.OnTouchListener delegate) {
+
+        this.mDelegate = delegate;
+
+    }
+
+    /**
+     * Returns true if a listener handles the touch, the toast only needs this one then.
+     */
+    boolean hasDelegate() {
+
+        return mDelegate != null;
+
+    }
+
+    @Override
+    public boolean onTouch(View view, MotionEvent motionEvent) {
+
+        final View.OnTouchListener delegate = mDelegate;
+
+        if (delegate == null) {
+
+            return false;
+
+        }
+
+        final boolean handled = delegate.onTouch(view, motionEvent);
+
+        switch (motionEvent.getAction() & MotionEvent.ACTION_MASK) {
+
+            case MotionEvent.ACTION_DOWN:
+
+                mCallback.onTouchChanged(true);
+
+                return true;
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+
+                mCallback.onTouchChanged(false);
+
+                break;
+
+            default:
+
+                break;
+
+        }
+
+        return handled;
+
+    }
+
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * {@link ToastTracer} backed by android.os.Trace, so toast sections show up in system
+ * traces next to the framework's own. Does nothing before Jelly Bean MR2 where Trace is
+ * not available.
+ */
+public final class SystemToastTracer implements ToastTracer {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "SystemToastTracer";
+
+    private static final boolean AVAILABLE =
+            Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+
+    @Override
+    public void beginSection(String sectionName) {
+
+        if (AVAILABLE) {
+
+            Trace.beginSection(sectionName);
+
+        }
+
+    }
+
+    @Override
+    public void endSection() {
+
+        if (AVAILABLE) {
+
+            Trace.endSection();
+
+        }
+
+    }
+
+}
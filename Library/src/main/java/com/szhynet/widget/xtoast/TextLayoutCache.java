@@ -0,0 +1,332 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Typeface;
+import android.text.Layout;
+import android.text.Spanned;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Least recently used cache of laid out toast messages, so a {@link FlatToastView} showing a
+ * message it showed before does not measure and break the text again. Layouts are keyed by
+ * text, typeface, text size, the paint attributes that change the shape of the text and
+ * width; color is not part of the key. Text with spans is laid out every time. Holds 32
+ * layouts by default, trimmed on memory pressure. Get it with XToast.getTextLayoutCache().
+ * Thread safe.
+ */
+public final class TextLayoutCache implements ComponentCallbacks2 {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "TextLayoutCache";
+
+    private static final int DEFAULT_MAX_SIZE = 32;
+
+    private static final class Holder {
+
+        private static final TextLayoutCache INSTANCE = new TextLayoutCache();
+
+    }
+
+    /* Access ordered, the eldest entry is the least recently used one */
+    private final LinkedHashMap<Key, Layout> mLayouts =
+            new LinkedHashMap<Key, Layout>(DEFAULT_MAX_SIZE, 0.75f, true);
+
+    private Application mApplication;
+    private int mMaxSize = DEFAULT_MAX_SIZE;
+    private long mHits;
+    private long mMisses;
+
+    private TextLayoutCache() {
+
+    }
+
+    static TextLayoutCache getInstance() {
+
+        return Holder.INSTANCE;
+
+    }
+
+    /**
+     * Sets how many layouts are kept. Zero turns caching off and releases the cached
+     * layouts.
+     *
+     * @param maxSize int
+     */
+    public synchronized void setMaxSize(int maxSize) {
+
+        this.mMaxSize = Math.max(0, maxSize);
+
+        trimTo(mMaxSize);
+
+    }
+
+    public synchronized int getMaxSize() {
+
+        return mMaxSize;
+
+    }
+
+    /**
+     * Returns how many layouts were found in the cache.
+     *
+     * @return long
+     */
+    public synchronized long getHitCount() {
+
+        return mHits;
+
+    }
+
+    /**
+     * Returns how many layouts were laid out while caching was on.
+     *
+     * @return long
+     */
+    public synchronized long getMissCount() {
+
+        return mMisses;
+
+    }
+
+    /**
+     * Returns the share of lookups found in the cache, between 0 and 1.
+     *
+     * @return float
+     */
+    public synchronized float getHitRate() {
+
+        final long lookups = mHits + mMisses;
+
+        return lookups > 0 ? (float) mHits / lookups : 0;
+
+    }
+
+    /**
+     * Returns the number of cached layouts.
+     *
+     * @return int
+     */
+    public synchronized int getSize() {
+
+        return mLayouts.size();
+
+    }
+
+    /**
+     * Releases every cached layout.
+     */
+    public synchronized void trim() {
+
+        trimTo(0);
+
+    }
+
+    /**
+     * Returns the layout of the text at a width, cached or laid out now. The layout has its
+     * own copy of the paint and may be shared, set the color on its paint right before
+     * drawing it.
+     */
+    Layout get(CharSequence text, TextPaint textPaint, int width, Layout.Alignment alignment) {
+
+        if (text instanceof Spanned) {
+
+            return createLayout(text, textPaint, width, alignment);
+
+        }
+
+        final Key key = new Key(text.toString(), textPaint, width, alignment);
+
+        synchronized (this) {
+
+            if (mMaxSize == 0) {
+
+                return createLayout(key.mText, textPaint, width, alignment);
+
+            }
+
+            final Layout layout = mLayouts.get(key);
+
+            if (layout != null) {
+
+                mHits++;
+
+                return layout;
+
+            }
+
+            mMisses++;
+
+        }
+
+        final Layout layout = createLayout(key.mText, textPaint, width, alignment);
+
+        synchronized (this) {
+
+            if (mMaxSize > 0) {
+
+                mLayouts.put(key, layout);
+
+                trimTo(mMaxSize);
+
+            }
+
+        }
+
+        return layout;
+
+    }
+
+    /**
+     * Trims the cache with the memory of the application, once a view using it is built.
+     */
+    synchronized void register(Context context) {
+
+        if (mApplication != null) {
+
+            return;
+
+        }
+
+        final Context applicationContext = context.getApplicationContext();
+
+        if (applicationContext instanceof Application) {
+
+            mApplication = (Application) applicationContext;
+
+            mApplication.registerComponentCallbacks(this);
+
+        }
+
+    }
+
+    private static Layout createLayout(CharSequence text, TextPaint textPaint, int width,
+                                       Layout.Alignment alignment) {
+
+        final TextPaint layoutPaint = new TextPaint();
+        layoutPaint.set(textPaint);
+
+        return new StaticLayout(text, layoutPaint, width, alignment, 1, 0, true);
+
+    }
+
+    private void trimTo(int maxSize) {
+
+        final Iterator<Key> iterator = mLayouts.keySet().iterator();
+
+        while (mLayouts.size() > maxSize && iterator.hasNext()) {
+
+            iterator.next();
+            iterator.remove();
+
+        }
+
+    }
+
+    @Override
+    public synchronized void onTrimMemory(int level) {
+
+        /* Layouts are cheap to make again, only a running app under light pressure keeps half */
+        trimTo(level >= TRIM_MEMORY_RUNNING_LOW ? 0 : mMaxSize / 2);
+
+    }
+
+    @Override
+    public void onLowMemory() {
+
+        trim();
+
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+
+        /* Do nothing, sizes are keyed in pixels so a new density or font scale misses */
+
+    }
+
+    /* The text and everything about the paint that changes where it breaks and how it looks */
+    private static final class Key {
+
+        final String mText;
+        final Typeface mTypeface;
+        final float mTextSize;
+        final float mTextScaleX;
+        final float mTextSkewX;
+        final int mFlags;
+        final int mWidth;
+        final Layout.Alignment mAlignment;
+
+        Key(String text, TextPaint textPaint, int width, Layout.Alignment alignment) {
+
+            mText = text;
+            mTypeface = textPaint.getTypeface();
+            mTextSize = textPaint.getTextSize();
+            mTextScaleX = textPaint.getTextScaleX();
+            mTextSkewX = textPaint.getTextSkewX();
+            mFlags = textPaint.getFlags();
+            mWidth = width;
+            mAlignment = alignment;
+
+        }
+
+        @Override
+        public boolean equals(Object object) {
+
+            if (!(object instanceof Key)) {
+
+                return false;
+
+            }
+
+            final Key key = (Key) object;
+
+            return mText.equals(key.mText) && mTypeface == key.mTypeface
+                    && mTextSize == key.mTextSize && mTextScaleX == key.mTextScaleX
+                    && mTextSkewX == key.mTextSkewX && mFlags == key.mFlags
+                    && mWidth == key.mWidth && mAlignment == key.mAlignment;
+
+        }
+
+        @Override
+        public int hashCode() {
+
+            int hashCode = mText.hashCode();
+
+            hashCode = 31 * hashCode + (mTypeface != null ? mTypeface.hashCode() : 0);
+            hashCode = 31 * hashCode + Float.floatToIntBits(mTextSize);
+            hashCode = 31 * hashCode + Float.floatToIntBits(mTextScaleX);
+            hashCode = 31 * hashCode + Float.floatToIntBits(mTextSkewX);
+            hashCode = 31 * hashCode + mFlags;
+            hashCode = 31 * hashCode + mWidth;
+            hashCode = 31 * hashCode + mAlignment.hashCode();
+
+            return hashCode;
+
+        }
+
+    }
+
+}
@@ -0,0 +1,272 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Display timers of a manager that can be paused and resumed with the time they have left.
+ * All timers share one task that is scheduled for the earliest running deadline, so pausing
+ * or cancelling a timer never leaves stray messages behind. A timer runs only while no pause
+ * reason is set. Plain Java, the time and the task come from the {@link Clock} and
+ * {@link DelayedExecutor} it is given. Not thread safe.
+ */
+final class ToastClock {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "ToastClock";
+
+    /* The activity of the toast is paused */
+    static final int PAUSE_BACKGROUND = 1;
+
+    /* The user is touching the toast */
+    static final int PAUSE_TOUCH = 1 << 1;
+
+    /**
+     * Called when the timer of a token runs out. The timer is already removed.
+     */
+    interface Listener {
+
+        void onTimeUp(Object token);
+
+    }
+
+    private final Clock mClock;
+    private final DelayedExecutor mExecutor;
+    private final Listener mListener;
+    private final IdentityHashMap<Object, Timer> mTimers = new IdentityHashMap<Object, Timer>();
+    private final ArrayList<Object> mDue = new ArrayList<Object>();
+
+    /* Time the tick is scheduled for, Long.MAX_VALUE if none */
+    private long mWakeAt = Long.MAX_VALUE;
+
+    private final Runnable mTick = new Runnable() {
+
+        @Override
+        public void run() {
+
+            tick();
+
+        }
+
+    };
+
+    ToastClock(Clock clock, DelayedExecutor executor, Listener listener) {
+
+        this.mClock = clock;
+        this.mExecutor = executor;
+        this.mListener = listener;
+
+    }
+
+    /**
+     * Starts or restarts the timer of a token. A paused timer stays paused with the new delay
+     * left on it.
+     */
+    void start(Object token, long delay) {
+
+        Timer timer = mTimers.get(token);
+
+        if (timer == null) {
+
+            timer = new Timer();
+
+            mTimers.put(token, timer);
+
+        }
+
+        if (timer.mPaused != 0) {
+
+            timer.mRemaining = Math.max(0, delay);
+
+            return;
+
+        }
+
+        timer.mDue = mClock.now() + Math.max(0, delay);
+
+        reschedule();
+
+    }
+
+    void cancel(Object token) {
+
+        if (mTimers.remove(token) != null) {
+
+            reschedule();
+
+        }
+
+    }
+
+    void cancelAll() {
+
+        mTimers.clear();
+
+        reschedule();
+
+    }
+
+    /**
+     * Stops the timer of a token for a reason, keeping the time it has left.
+     */
+    void pause(Object token, int reason) {
+
+        final Timer timer = mTimers.get(token);
+
+        if (timer == null || (timer.mPaused & reason) != 0) {
+
+            return;
+
+        }
+
+        if (timer.mPaused == 0) {
+
+            timer.mRemaining = Math.max(0, timer.mDue - mClock.now());
+
+        }
+
+        timer.mPaused |= reason;
+
+        reschedule();
+
+    }
+
+    /**
+     * Clears a pause reason. The timer continues once no reason is left.
+     */
+    void resume(Object token, int reason) {
+
+        final Timer timer = mTimers.get(token);
+
+        if (timer == null || (timer.mPaused & reason) == 0) {
+
+            return;
+
+        }
+
+        timer.mPaused &= ~reason;
+
+        if (timer.mPaused == 0) {
+
+            timer.mDue = mClock.now() + timer.mRemaining;
+
+            reschedule();
+
+        }
+
+    }
+
+    /**
+     * Returns the time left on the timer of a token, or -1 if it has none.
+     */
+    long getRemaining(Object token) {
+
+        final Timer timer = mTimers.get(token);
+
+        if (timer == null) {
+
+            return -1;
+
+        }
+
+        return timer.mPaused != 0 ? timer.mRemaining
+                : Math.max(0, timer.mDue - mClock.now());
+
+    }
+
+    private void tick() {
+
+        mWakeAt = Long.MAX_VALUE;
+
+        final long now = mClock.now();
+
+        for (Map.Entry<Object, Timer> entry : mTimers.entrySet()) {
+
+            final Timer timer = entry.getValue();
+
+            if (timer.mPaused == 0 && timer.mDue <= now) {
+
+                mDue.add(entry.getKey());
+
+            }
+
+        }
+
+        for (int i = 0; i < mDue.size(); i++) {
+
+            mTimers.remove(mDue.get(i));
+
+        }
+
+        reschedule();
+
+        /* Listeners run last, they may start new timers */
+        for (int i = 0; i < mDue.size(); i++) {
+
+            mListener.onTimeUp(mDue.get(i));
+
+        }
+
+        mDue.clear();
+
+    }
+
+    /* Posts the tick for the earliest running deadline, toasts are few so a scan is fine */
+    private void reschedule() {
+
+        long earliest = Long.MAX_VALUE;
+
+        for (Timer timer : mTimers.values()) {
+
+            if (timer.mPaused == 0 && timer.mDue < earliest) {
+
+                earliest = timer.mDue;
+
+            }
+
+        }
+
+        if (earliest == mWakeAt) {
+
+            return;
+
+        }
+
+        mExecutor.cancel(mTick);
+
+        mWakeAt = earliest;
+
+        if (earliest != Long.MAX_VALUE) {
+
+            mExecutor.executeAt(mTick, earliest);
+
+        }
+
+    }
+
+    private static final class Timer {
+
+        long mDue;
+        long mRemaining;
+        int mPaused;
+
+    }
+
+}
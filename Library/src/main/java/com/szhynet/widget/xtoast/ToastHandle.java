@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Returned by XToast.show() and XActivityToast.show() to refer to a toast later without
+ * holding on to it. Pass it to XToast.cancel(), XToast.isQueued() and XToast.update() or
+ * their XActivityToast counterparts. Every toast has one handle for its whole life, so
+ * showing the same toast again returns an equal handle.
+ */
+public final class ToastHandle {
+
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+
+    private final long mId;
+
+    /* Times kept by ToastMetrics to measure the wait and display time */
+    long mEnqueuedAt;
+    long mDisplayedAt;
+
+    ToastHandle() {
+
+        mId = NEXT_ID.getAndIncrement();
+
+    }
+
+    /**
+     * Returns the id of the handle, unique for the life of the process.
+     *
+     * @return long
+     */
+    public long getId() {
+
+        return mId;
+
+    }
+
+    @Override
+    public boolean equals(Object object) {
+
+        return object instanceof ToastHandle && ((ToastHandle) object).mId == mId;
+
+    }
+
+    @Override
+    public int hashCode() {
+
+        return (int) (mId ^ (mId >>> 32));
+
+    }
+
+    @Override
+    public String toString() {
+
+        return "ToastHandle{" + mId + "}";
+
+    }
+
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+/**
+ * Lifecycle metrics of one manager: how many toasts were enqueued, displayed, dismissed,
+ * cancelled, merged and dropped, how deep the queue is, how long toasts waited for a
+ * display slot and how long they were shown. Every manager keeps one, get it with
+ * XToast.getMetrics(), XActivityToast.getMetrics() or XCardToast.getMetrics(). Recording
+ * only updates counters and never allocates, so the metrics are always on. Updated and
+ * read on the main thread.
+ */
+public final class ToastMetrics {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "ToastMetrics";
+
+    /**
+     * Something that happened to a toast.
+     */
+    public enum Event {
+
+        /**
+         * The toast was queued.
+         */
+        ENQUEUED,
+
+        /**
+         * The toast got a display slot. A toast that was preempted is displayed again.
+         */
+        DISPLAYED,
+
+        /**
+         * A displayed toast went away.
+         */
+        DISMISSED,
+
+        /**
+         * The toast was removed before it was seen, or by a cancel all.
+         */
+        CANCELLED,
+
+        /**
+         * The toast was merged into a pending or showing toast instead of being queued.
+         */
+        COALESCED,
+
+        /**
+         * The toast was rejected by the rate limiter or the queue size limit, or its time
+         * to live ran out.
+         */
+        DROPPED
+
+    }
+
+    /**
+     * Receives every event as it is recorded, on the main thread. Keep it short, it runs
+     * inside the manager.
+     */
+    public interface OnEventListener {
+
+        /**
+         * @param event        {@link Event}
+         * @param handle       {@link ToastHandle} of the toast
+         * @param uptimeMillis time of the event, see {@link android.os.SystemClock#uptimeMillis()}
+         */
+        void onEvent(Event event, ToastHandle handle, long uptimeMillis);
+
+    }
+
+    private static final Event[] EVENTS = Event.values();
+
+    private final long[] mCounts = new long[EVENTS.length];
+    private final LatencyHistogram mWaitTime = new LatencyHistogram();
+    private final LatencyHistogram mDisplayTime = new LatencyHistogram();
+
+    private OnEventListener mOnEventListener;
+    private int mQueueDepth;
+    private int mMaxQueueDepth;
+
+    ToastMetrics() {
+
+    }
+
+    void setOnEventListener(OnEventListener onEventListener) {
+
+        this.mOnEventListener = onEventListener;
+
+    }
+
+    /**
+     * Counts an event, times the wait or display it ends and tells the listener.
+     */
+    void record(Event event, ToastHandle handle, long now, int queueDepth) {
+
+        mCounts[event.ordinal()]++;
+
+        /* Toasts without a handle are counted but not timed */
+        if (handle != null) {
+
+            time(event, handle, now);
+
+        }
+
+        setQueueDepth(queueDepth);
+
+        if (mOnEventListener != null) {
+
+            mOnEventListener.onEvent(event, handle, now);
+
+        }
+
+    }
+
+    private void time(Event event, ToastHandle handle, long now) {
+
+        switch (event) {
+
+            case ENQUEUED:
+
+                handle.mEnqueuedAt = now;
+
+                break;
+
+            case DISPLAYED:
+
+                mWaitTime.record(now - handle.mEnqueuedAt);
+
+                handle.mDisplayedAt = now;
+
+                break;
+
+            case DISMISSED:
+
+                mDisplayTime.record(now - handle.mDisplayedAt);
+
+                break;
+
+            default:
+
+                break;
+
+        }
+
+    }
+
+    void setQueueDepth(int queueDepth) {
+
+        mQueueDepth = queueDepth;
+
+        if (queueDepth > mMaxQueueDepth) {
+
+            mMaxQueueDepth = queueDepth;
+
+        }
+
+    }
+
+    /**
+     * Returns how many times an event was recorded.
+     *
+     * @param event {@link Event}
+     *
+     * @return long
+     */
+    public long getCount(Event event) {
+
+        return mCounts[event.ordinal()];
+
+    }
+
+    /**
+     * Returns the number of toasts waiting for a display slot.
+     *
+     * @return int
+     */
+    public int getQueueDepth() {
+
+        return mQueueDepth;
+
+    }
+
+    /**
+     * Returns the most toasts that waited at once.
+     *
+     * @return int
+     */
+    public int getMaxQueueDepth() {
+
+        return mMaxQueueDepth;
+
+    }
+
+    /**
+     * Returns the time toasts waited from being queued to being displayed.
+     *
+     * @return {@link LatencyHistogram}
+     */
+    public LatencyHistogram getWaitTime() {
+
+        return mWaitTime;
+
+    }
+
+    /**
+     * Returns the time toasts were displayed, not counting those that were preempted.
+     *
+     * @return {@link LatencyHistogram}
+     */
+    public LatencyHistogram getDisplayTime() {
+
+        return mDisplayTime;
+
+    }
+
+    /**
+     * Clears the counters and histograms. The queue depth stays, the maximum restarts from it.
+     */
+    public void reset() {
+
+        for (int i = 0; i < mCounts.length; i++) {
+
+            mCounts[i] = 0;
+
+        }
+
+        mWaitTime.reset();
+        mDisplayTime.reset();
+
+        mMaxQueueDepth = mQueueDepth;
+
+    }
+
+}
@@ -0,0 +1,588 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Pending toasts split into priority lanes. Every lane is a linked FIFO so enqueue,
+ * dequeue and removal of a known item are all O(1). Higher lanes are served first, but
+ * once a lower lane has been passed over {@link #setFairness(int)} times in a row the
+ * oldest waiting lower entry is served so low priority toasts cannot starve.
+ * Entries may carry a key, which is hashed so duplicates can be found without a scan.
+ * Entries sharing a key are chained newest to oldest, so removing one still finds the rest.
+ */
+class ToastQueue<T> implements Iterable<T> {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "ToastQueue";
+
+    /* Number of higher lane dequeues allowed while a lower lane is waiting */
+    static final int DEFAULT_FAIRNESS = 3;
+
+    private final Node<T>[] mHeads;
+    private final Node<T>[] mTails;
+    private final IdentityHashMap<T, Node<T>> mNodes;
+    private final HashMap<Object, Node<T>> mKeys;
+
+    private int mFairness = DEFAULT_FAIRNESS;
+    private int mPassed;
+    private long mSequence;
+
+    /* Counts down from below every offered entry, for items put back at the head */
+    private long mFirstSequence = -1;
+
+    ToastQueue(int lanes) {
+
+        mHeads = newLanes(lanes);
+        mTails = newLanes(lanes);
+        mNodes = new IdentityHashMap<T, Node<T>>();
+        mKeys = new HashMap<Object, Node<T>>();
+
+    }
+
+    /**
+     * Sets how many times in a row a waiting lower lane may be passed over. Zero means
+     * lanes are served in strict priority order.
+     */
+    void setFairness(int fairness) {
+
+        this.mFairness = Math.max(0, fairness);
+
+    }
+
+    /**
+     * Appends an item to the tail of a lane. An item that is already queued is moved.
+     */
+    void offer(T item, int lane) {
+
+        offer(item, lane, null);
+
+    }
+
+    /**
+     * Appends an item with a lookup key to the tail of a lane. A null key is not indexed.
+     */
+    void offer(T item, int lane, Object key) {
+
+        if (mNodes.containsKey(item)) {
+
+            remove(item);
+
+        }
+
+        final Node<T> node = new Node<T>(item, key,
+                Math.max(0, Math.min(lane, mHeads.length - 1)), mSequence++);
+
+        if (mTails[node.lane] == null) {
+
+            mHeads[node.lane] = node;
+
+        } else {
+
+            mTails[node.lane].next = node;
+            node.prev = mTails[node.lane];
+
+        }
+
+        mTails[node.lane] = node;
+        mNodes.put(item, node);
+
+        index(node);
+
+    }
+
+    /**
+     * Puts an item back at the head of its lane, ahead of the items already waiting there.
+     * Used to resume an interrupted item before its peers.
+     */
+    void offerFirst(T item, int lane, Object key) {
+
+        if (mNodes.containsKey(item)) {
+
+            remove(item);
+
+        }
+
+        final int index = Math.max(0, Math.min(lane, mHeads.length - 1));
+
+        final Node<T> head = mHeads[index];
+
+        /* Older than every waiting entry so fairness treats it as waiting the longest */
+        final Node<T> node = new Node<T>(item, key, index, mFirstSequence--);
+
+        if (head == null) {
+
+            mTails[index] = node;
+
+        } else {
+
+            head.prev = node;
+            node.next = head;
+
+        }
+
+        mHeads[index] = node;
+        mNodes.put(item, node);
+
+        index(node);
+
+    }
+
+    /**
+     * Returns the most recently queued item with this key, or null.
+     */
+    T get(Object key) {
+
+        final Node<T> node = key != null ? mKeys.get(key) : null;
+
+        return node != null ? node.item : null;
+
+    }
+
+    /**
+     * Returns the key an item was queued with, or null.
+     */
+    Object keyOf(T item) {
+
+        final Node<T> node = mNodes.get(item);
+
+        return node != null ? node.key : null;
+
+    }
+
+    /**
+     * Changes the lookup key of a queued item. A null key removes it from the index.
+     */
+    void rekey(T item, Object key) {
+
+        final Node<T> node = mNodes.get(item);
+
+        if (node == null) {
+
+            return;
+
+        }
+
+        unindex(node);
+
+        node.key = key;
+
+        index(node);
+
+    }
+
+    /**
+     * Returns the item {@link #poll()} would return without removing it.
+     */
+    T peek() {
+
+        final Node<T> node = select(false);
+
+        return node != null ? node.item : null;
+
+    }
+
+    /**
+     * Removes and returns the next item to show, or null if the queue is empty.
+     */
+    T poll() {
+
+        final Node<T> node = select(true);
+
+        if (node == null) {
+
+            return null;
+
+        }
+
+        unlink(node);
+
+        return node.item;
+
+    }
+
+    /**
+     * Returns the oldest item of the lowest non-empty lane, the first candidate for eviction.
+     */
+    T peekOldest() {
+
+        for (int lane = 0; lane < mHeads.length; lane++) {
+
+            if (mHeads[lane] != null) {
+
+                return mHeads[lane].item;
+
+            }
+
+        }
+
+        return null;
+
+    }
+
+    /**
+     * Returns the most recently queued item in any lane.
+     */
+    T peekNewest() {
+
+        Node<T> newest = null;
+
+        for (int lane = 0; lane < mTails.length; lane++) {
+
+            final Node<T> tail = mTails[lane];
+
+            if (tail != null && (newest == null || tail.sequence > newest.sequence)) {
+
+                newest = tail;
+
+            }
+
+        }
+
+        return newest != null ? newest.item : null;
+
+    }
+
+    /**
+     * Returns the lane of a queued item, or -1 if it is not queued.
+     */
+    int laneOf(T item) {
+
+        final Node<T> node = mNodes.get(item);
+
+        return node != null ? node.lane : -1;
+
+    }
+
+    /**
+     * Removes a queued item. Returns false if the item was not queued.
+     */
+    boolean remove(Object item) {
+
+        final Node<T> node = mNodes.get(item);
+
+        if (node == null) {
+
+            return false;
+
+        }
+
+        unlink(node);
+
+        return true;
+
+    }
+
+    boolean contains(Object item) {
+
+        return mNodes.containsKey(item);
+
+    }
+
+    int size() {
+
+        return mNodes.size();
+
+    }
+
+    boolean isEmpty() {
+
+        return mNodes.isEmpty();
+
+    }
+
+    void clear() {
+
+        for (int lane = 0; lane < mHeads.length; lane++) {
+
+            mHeads[lane] = null;
+            mTails[lane] = null;
+
+        }
+
+        mNodes.clear();
+        mKeys.clear();
+        mPassed = 0;
+
+    }
+
+    /**
+     * Iterates from the highest lane to the lowest, oldest entry first within a lane.
+     */
+    @Override
+    public Iterator<T> iterator() {
+
+        return new Iterator<T>() {
+
+            private int mLane = mHeads.length - 1;
+            private Node<T> mNext = advance(null);
+            private Node<T> mLastReturned;
+
+            private Node<T> advance(Node<T> node) {
+
+                if (node != null && node.next != null) {
+
+                    return node.next;
+
+                }
+
+                int lane = node != null ? node.lane - 1 : mLane;
+
+                while (lane >= 0 && mHeads[lane] == null) {
+
+                    lane--;
+
+                }
+
+                mLane = lane;
+
+                return lane >= 0 ? mHeads[lane] : null;
+
+            }
+
+            @Override
+            public boolean hasNext() {
+
+                return mNext != null;
+
+            }
+
+            @Override
+            public T next() {
+
+                if (mNext == null) {
+
+                    throw new NoSuchElementException();
+
+                }
+
+                mLastReturned = mNext;
+                mNext = advance(mNext);
+
+                return mLastReturned.item;
+
+            }
+
+            @Override
+            public void remove() {
+
+                if (mLastReturned == null) {
+
+                    throw new IllegalStateException();
+
+                }
+
+                unlink(mLastReturned);
+                mLastReturned = null;
+
+            }
+
+        };
+
+    }
+
+    /* Generic arrays cannot be created, the raw array only ever holds Node<T> */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Node<T>[] newLanes(int lanes) {
+
+        return (Node<T>[]) new Node[lanes];
+
+    }
+
+    /* Picks the next node, advancing the fairness count only when it is being dequeued */
+    private Node<T> select(boolean dequeue) {
+
+        Node<T> highest = null;
+        Node<T> oldestWaiting = null;
+
+        for (int lane = mHeads.length - 1; lane >= 0; lane--) {
+
+            final Node<T> head = mHeads[lane];
+
+            if (head == null) {
+
+                continue;
+
+            }
+
+            if (highest == null) {
+
+                highest = head;
+
+            } else if (oldestWaiting == null || head.sequence < oldestWaiting.sequence) {
+
+                oldestWaiting = head;
+
+            }
+
+        }
+
+        if (highest == null) {
+
+            return null;
+
+        }
+
+        if (oldestWaiting == null) {
+
+            if (dequeue) {
+
+                mPassed = 0;
+
+            }
+
+            return highest;
+
+        }
+
+        if (mFairness > 0 && mPassed >= mFairness) {
+
+            if (dequeue) {
+
+                mPassed = 0;
+
+            }
+
+            return oldestWaiting;
+
+        }
+
+        if (dequeue) {
+
+            mPassed++;
+
+        }
+
+        return highest;
+
+    }
+
+    private void unlink(Node<T> node) {
+
+        if (node.prev == null) {
+
+            mHeads[node.lane] = node.next;
+
+        } else {
+
+            node.prev.next = node.next;
+
+        }
+
+        if (node.next == null) {
+
+            mTails[node.lane] = node.prev;
+
+        } else {
+
+            node.next.prev = node.prev;
+
+        }
+
+        node.prev = null;
+        node.next = null;
+
+        mNodes.remove(node.item);
+
+        unindex(node);
+
+    }
+
+    /* Makes a keyed node the newest of its key */
+    private void index(Node<T> node) {
+
+        if (node.key == null) {
+
+            return;
+
+        }
+
+        final Node<T> newest = mKeys.put(node.key, node);
+
+        if (newest != null) {
+
+            newest.newer = node;
+            node.older = newest;
+
+        }
+
+    }
+
+    /* Takes a node out of the chain of its key, the next older one takes its place */
+    private void unindex(Node<T> node) {
+
+        if (node.key == null) {
+
+            return;
+
+        }
+
+        if (node.older != null) {
+
+            node.older.newer = node.newer;
+
+        }
+
+        if (node.newer != null) {
+
+            node.newer.older = node.older;
+
+        } else if (node.older != null) {
+
+            mKeys.put(node.key, node.older);
+
+        } else {
+
+            mKeys.remove(node.key);
+
+        }
+
+        node.older = null;
+        node.newer = null;
+
+    }
+
+    private static final class Node<T> {
+
+        final T item;
+        final int lane;
+        final long sequence;
+
+        Object key;
+        Node<T> prev;
+        Node<T> next;
+
+        /* Neighbours queued with the same key */
+        Node<T> older;
+        Node<T> newer;
+
+        Node(T item, Object key, int lane, long sequence) {
+
+            this.item = item;
+            this.key = key;
+            this.lane = lane;
+            this.sequence = sequence;
+
+        }
+
+    }
+
+}
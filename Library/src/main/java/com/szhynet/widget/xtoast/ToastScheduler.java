@@ -0,0 +1,842 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.szhynet.widget.xtoast;
+
+import com.szhynet.widget.xtoast.utils.RateLimiter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * The scheduling state of a manager in plain Java: the priority queue, the toasts occupying
+ * the display slots, handles, coalescing, rate limiting, the overflow policy, time to live
+ * and display timers. The managers translate its callbacks into view and window work and
+ * run it on the main thread with a {@link MainThreadExecutor}. Tests give it their own
+ * {@link Clock} and {@link DelayedExecutor} to replay traffic without a device. Everything
+ * that happens to a toast is recorded in its {@link ToastMetrics}. Not thread safe.
+ */
+final class ToastScheduler<T> implements Iterable<T> {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "ToastScheduler";
+
+    /**
+     * What happens to a toast offered to a full queue, the managers map the public
+     * XToast.OverflowPolicy onto it.
+     */
+    enum OverflowPolicy {
+
+        DROP_OLDEST,
+
+        DROP_NEWEST,
+
+        REPLACE_SAME_KEY,
+
+        COLLAPSE
+
+    }
+
+    /**
+     * Reads the toasts and receives what happens to them. Called on the thread that drives
+     * the scheduler.
+     */
+    interface Callback<T> {
+
+        /**
+         * Returns the handle of a toast, null if it has none.
+         */
+        ToastHandle getHandle(T toast);
+
+        /**
+         * Returns the priority lane of a toast, higher is more important.
+         */
+        int getLane(T toast);
+
+        /**
+         * Returns the key duplicates of a toast share. Only asked for while coalescing, a rate
+         * limiter or REPLACE_SAME_KEY is on.
+         */
+        String getKey(T toast);
+
+        /**
+         * Returns the time a queued toast expires, zero if it never does.
+         */
+        long getDeadline(T toast);
+
+        /**
+         * A toast left the queue for a free display slot.
+         */
+        void onShow(T toast);
+
+        /**
+         * A duplicate was merged into a pending or showing toast. Returns false if toasts of
+         * this kind are never merged, the duplicate is then handled as if there was none.
+         */
+        boolean onCoalesce(T toast, boolean showing);
+
+        /**
+         * The queue was full and the newest pending toast stands in for the rejected one,
+         * which is dropped right after.
+         */
+        void onCollapse(T toast);
+
+        /**
+         * A toast will never be shown.
+         */
+        void onDrop(T toast);
+
+        /**
+         * The display timer of a toast ran out.
+         */
+        void onTimeUp(T toast);
+
+    }
+
+    private final Clock mClock;
+    private final DelayedExecutor mExecutor;
+    private final Callback<T> mCallback;
+
+    private final ToastQueue<T> mQueue;
+    private final ToastClock mTimers;
+    private final ToastMetrics mMetrics = new ToastMetrics();
+
+    /* Toasts holding a display slot in the order they got it, with their keys */
+    private final ArrayList<T> mShowing = new ArrayList<T>();
+    private final ArrayList<Object> mShowingKeys = new ArrayList<Object>();
+
+    /* Pending and showing toasts by handle */
+    private final HashMap<ToastHandle, T> mHandles = new HashMap<ToastHandle, T>();
+
+    /* Time to live bookkeeping, mSweepAt is the time of the scheduled sweep or zero */
+    private final ArrayList<T> mExpired = new ArrayList<T>();
+    private long mSweepAt;
+    private long mExpiredCount;
+
+    private final Runnable mSweep = new Runnable() {
+
+        @Override
+        public void run() {
+
+            sweepExpired();
+
+        }
+
+    };
+
+    private int mSlots = 1;
+    private boolean mCoalescing;
+    private RateLimiter mRateLimiter;
+
+    private int mMaxQueueSize;
+    private OverflowPolicy mOverflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+    ToastScheduler(int lanes, Clock clock, DelayedExecutor executor, Callback<T> callback) {
+
+        this.mClock = clock;
+        this.mExecutor = executor;
+        this.mCallback = callback;
+
+        mQueue = new ToastQueue<T>(lanes);
+
+        mTimers = new ToastClock(clock, executor, new ToastClock.Listener() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void onTimeUp(Object token) {
+
+                mCallback.onTimeUp((T) token);
+
+            }
+
+        });
+
+    }
+
+    /**
+     * Returns the current time of the scheduler's clock.
+     */
+    long now() {
+
+        return mClock.now();
+
+    }
+
+    ToastMetrics getMetrics() {
+
+        return mMetrics;
+
+    }
+
+    /**
+     * Sets how many toasts may hold a display slot at once and fills any new slots.
+     */
+    void setSlots(int slots) {
+
+        this.mSlots = Math.max(1, slots);
+
+        promote();
+
+    }
+
+    /**
+     * Sets how many higher priority toasts may jump ahead of a waiting lower priority one.
+     */
+    void setFairness(int fairness) {
+
+        mQueue.setFairness(fairness);
+
+    }
+
+    /**
+     * Enables merging of toasts that share a key.
+     */
+    void setCoalescing(boolean coalescing) {
+
+        this.mCoalescing = coalescing;
+
+    }
+
+    /**
+     * Limits how fast toasts are accepted, null removes the limit.
+     */
+    void setRateLimiter(RateLimiter rateLimiter) {
+
+        this.mRateLimiter = rateLimiter;
+
+    }
+
+    /**
+     * Bounds the number of pending toasts, zero means unbounded.
+     */
+    void setMaxQueueSize(int maxQueueSize, OverflowPolicy overflowPolicy) {
+
+        this.mMaxQueueSize = Math.max(0, maxQueueSize);
+        this.mOverflowPolicy = overflowPolicy;
+
+    }
+
+    /**
+     * Queues a toast and fills the free display slots. Returns false if the toast was merged
+     * into another one or dropped instead, or is already showing or pending.
+     */
+    boolean offer(T toast) {
+
+        /* A second entry would hold a slot nothing ever releases */
+        if (mShowing.contains(toast) || mQueue.contains(toast)) {
+
+            return false;
+
+        }
+
+        /* Building a key may allocate, skip it unless something compares keys */
+        final String key = usesKeys() ? mCallback.getKey(toast) : null;
+
+        if (mCoalescing && coalesce(key)) {
+
+            record(ToastMetrics.Event.COALESCED, toast);
+
+            return false;
+
+        }
+
+        if (mRateLimiter != null && !mRateLimiter.tryAcquire(key, mClock.now())) {
+
+            if (mRateLimiter.getOnLimit() == RateLimiter.OnLimit.COLLAPSE && coalesce(key)) {
+
+                record(ToastMetrics.Event.COALESCED, toast);
+
+            } else {
+
+                drop(toast);
+
+            }
+
+            return false;
+
+        }
+
+        if (mMaxQueueSize > 0 && mQueue.size() >= mMaxQueueSize && !makeRoom(toast, key)) {
+
+            return false;
+
+        }
+
+        mQueue.offer(toast, mCallback.getLane(toast), key);
+
+        putHandle(toast);
+
+        record(ToastMetrics.Event.ENQUEUED, toast);
+
+        final long deadline = mCallback.getDeadline(toast);
+
+        if (deadline > 0) {
+
+            scheduleSweep(deadline);
+
+        }
+
+        promote();
+
+        return true;
+
+    }
+
+    /**
+     * Fills the free display slots with the next toasts by priority, dropping the expired ones.
+     */
+    void promote() {
+
+        final long now = mClock.now();
+
+        while (mShowing.size() < mSlots && !mQueue.isEmpty()) {
+
+            final Object key = mQueue.keyOf(mQueue.peek());
+            final T toast = mQueue.poll();
+
+            if (isExpired(toast, now)) {
+
+                expire(toast);
+
+                continue;
+
+            }
+
+            mShowing.add(toast);
+            mShowingKeys.add(key);
+
+            record(ToastMetrics.Event.DISPLAYED, toast);
+
+            mCallback.onShow(toast);
+
+        }
+
+    }
+
+    /**
+     * Frees the display slot of a toast and stops its timer. Returns false if it has none.
+     * The next toast is not promoted, the caller does that when the slot is really free.
+     * A toast that was never seen is recorded as cancelled rather than dismissed.
+     */
+    boolean release(T toast, boolean seen) {
+
+        final int index = mShowing.indexOf(toast);
+
+        if (index < 0) {
+
+            return false;
+
+        }
+
+        mShowing.remove(index);
+        mShowingKeys.remove(index);
+
+        mTimers.cancel(toast);
+
+        removeHandle(toast);
+
+        record(seen ? ToastMetrics.Event.DISMISSED : ToastMetrics.Event.CANCELLED, toast);
+
+        return true;
+
+    }
+
+    /**
+     * Removes a pending toast from the queue. Returns false if it is not queued.
+     */
+    boolean dequeue(T toast) {
+
+        if (!mQueue.remove(toast)) {
+
+            return false;
+
+        }
+
+        removeHandle(toast);
+
+        record(ToastMetrics.Event.CANCELLED, toast);
+
+        return true;
+
+    }
+
+    /**
+     * Moves a showing toast back to the head of its lane, it keeps its handle.
+     */
+    void requeueFirst(T toast) {
+
+        final int index = mShowing.indexOf(toast);
+
+        if (index < 0) {
+
+            return;
+
+        }
+
+        final Object key = mShowingKeys.remove(index);
+
+        mShowing.remove(index);
+
+        mTimers.cancel(toast);
+
+        mQueue.offerFirst(toast, mCallback.getLane(toast), key);
+
+        /* It waits again, its next wait is measured from here */
+        final ToastHandle handle = mCallback.getHandle(toast);
+
+        if (handle != null) {
+
+            handle.mEnqueuedAt = mClock.now();
+
+        }
+
+        mMetrics.setQueueDepth(mQueue.size());
+
+    }
+
+    /**
+     * Updates the key of a pending or showing toast.
+     */
+    void rekey(T toast, Object key) {
+
+        final int index = mShowing.indexOf(toast);
+
+        if (index >= 0) {
+
+            mShowingKeys.set(index, key);
+
+        } else {
+
+            mQueue.rekey(toast, key);
+
+        }
+
+    }
+
+    /**
+     * Returns the pending or showing toast of a handle, or null.
+     */
+    T get(ToastHandle handle) {
+
+        return mHandles.get(handle);
+
+    }
+
+    /**
+     * Returns the toast that would be promoted next, or null.
+     */
+    T peek() {
+
+        return mQueue.peek();
+
+    }
+
+    boolean isPending(T toast) {
+
+        return mQueue.contains(toast);
+
+    }
+
+    /**
+     * Returns the display slot of a toast, -1 if it has none.
+     */
+    int indexOf(T toast) {
+
+        return mShowing.indexOf(toast);
+
+    }
+
+    T getShowing(int index) {
+
+        return mShowing.get(index);
+
+    }
+
+    int getShowingCount() {
+
+        return mShowing.size();
+
+    }
+
+    /**
+     * Returns true if nothing is showing or pending.
+     */
+    boolean isIdle() {
+
+        return mShowing.isEmpty() && mQueue.isEmpty();
+
+    }
+
+    /**
+     * Starts or restarts the display timer of a showing toast.
+     */
+    void startTimer(T toast, long duration) {
+
+        mTimers.start(toast, duration);
+
+    }
+
+    void cancelTimer(T toast) {
+
+        mTimers.cancel(toast);
+
+    }
+
+    /**
+     * Stops the display timer of a toast for a {@link ToastClock} pause reason.
+     */
+    void pauseTimer(T toast, int reason) {
+
+        mTimers.pause(toast, reason);
+
+    }
+
+    void resumeTimer(T toast, int reason) {
+
+        mTimers.resume(toast, reason);
+
+    }
+
+    /**
+     * Returns the display time a toast has left, -1 if its timer is not set.
+     */
+    long getRemaining(T toast) {
+
+        return mTimers.getRemaining(toast);
+
+    }
+
+    /**
+     * Number of toasts dropped because their time to live ran out while queued.
+     */
+    long getExpiredCount() {
+
+        return mExpiredCount;
+
+    }
+
+    /**
+     * Forgets every pending and showing toast without notifying anyone but the metrics,
+     * which count them as cancelled.
+     */
+    void clear() {
+
+        for (int i = 0; i < mShowing.size(); i++) {
+
+            record(ToastMetrics.Event.CANCELLED, mShowing.get(i));
+
+        }
+
+        for (T queued : mQueue) {
+
+            record(ToastMetrics.Event.CANCELLED, queued);
+
+        }
+
+        mQueue.clear();
+
+        mShowing.clear();
+        mShowingKeys.clear();
+
+        mHandles.clear();
+
+        mTimers.cancelAll();
+
+        mExecutor.cancel(mSweep);
+
+        mSweepAt = 0;
+
+    }
+
+    /**
+     * Iterates over the pending toasts in the order they would be shown. Removing a toast
+     * also forgets its handle.
+     */
+    @Override
+    public Iterator<T> iterator() {
+
+        final Iterator<T> iterator = mQueue.iterator();
+
+        return new Iterator<T>() {
+
+            private T mLast;
+
+            @Override
+            public boolean hasNext() {
+
+                return iterator.hasNext();
+
+            }
+
+            @Override
+            public T next() {
+
+                mLast = iterator.next();
+
+                return mLast;
+
+            }
+
+            @Override
+            public void remove() {
+
+                iterator.remove();
+
+                removeHandle(mLast);
+
+                record(ToastMetrics.Event.CANCELLED, mLast);
+
+            }
+
+        };
+
+    }
+
+    /**
+     * Returns true if coalescing, the rate limiter or the overflow policy look at keys.
+     */
+    private boolean usesKeys() {
+
+        return mCoalescing || mRateLimiter != null
+                || (mMaxQueueSize > 0 && mOverflowPolicy == OverflowPolicy.REPLACE_SAME_KEY);
+
+    }
+
+    /**
+     * Merges a duplicate into the showing or pending toast with the same key. Returns false
+     * if there is none or it cannot be merged.
+     */
+    private boolean coalesce(String key) {
+
+        if (key == null) {
+
+            return false;
+
+        }
+
+        for (int i = 0; i < mShowing.size(); i++) {
+
+            if (key.equals(mShowingKeys.get(i))) {
+
+                return mCallback.onCoalesce(mShowing.get(i), true);
+
+            }
+
+        }
+
+        final T pending = mQueue.get(key);
+
+        if (pending != null) {
+
+            return mCallback.onCoalesce(pending, false);
+
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Applies the overflow policy to a full queue. Returns true if the new toast may be queued.
+     */
+    private boolean makeRoom(T toast, String key) {
+
+        T victim = null;
+
+        switch (mOverflowPolicy) {
+
+            case DROP_OLDEST:
+
+                victim = mQueue.peekOldest();
+
+                if (victim != null && mQueue.laneOf(victim) > mCallback.getLane(toast)) {
+
+                    /* Everything queued is more important than the new toast */
+                    victim = null;
+
+                }
+
+                break;
+
+            case REPLACE_SAME_KEY:
+
+                victim = mQueue.get(key);
+
+                break;
+
+            case COLLAPSE:
+
+                final T summary = mQueue.peekNewest();
+
+                if (summary != null) {
+
+                    mCallback.onCollapse(summary);
+
+                }
+
+                /* The summary only counts it, the rejected toast is still dropped */
+                break;
+
+            default:
+
+                break;
+
+        }
+
+        if (victim == null) {
+
+            drop(toast);
+
+            return false;
+
+        }
+
+        mQueue.remove(victim);
+
+        removeHandle(victim);
+
+        drop(victim);
+
+        return true;
+
+    }
+
+    /**
+     * Drops the queued toasts whose deadline has passed and schedules the next sweep.
+     */
+    private void sweepExpired() {
+
+        final long now = mClock.now();
+
+        long next = Long.MAX_VALUE;
+
+        for (T queued : mQueue) {
+
+            final long deadline = mCallback.getDeadline(queued);
+
+            if (deadline > 0 && deadline <= now) {
+
+                mExpired.add(queued);
+
+            } else if (deadline > 0 && deadline < next) {
+
+                next = deadline;
+
+            }
+
+        }
+
+        mSweepAt = 0;
+
+        if (next != Long.MAX_VALUE) {
+
+            scheduleSweep(next);
+
+        }
+
+        /* Dropped after the scan, a dismiss listener may show another toast */
+        for (int i = 0; i < mExpired.size(); i++) {
+
+            final T expired = mExpired.get(i);
+
+            if (mQueue.remove(expired)) {
+
+                expire(expired);
+
+            }
+
+        }
+
+        mExpired.clear();
+
+    }
+
+    /**
+     * Makes sure a sweep runs no later than the deadline.
+     */
+    private void scheduleSweep(long deadline) {
+
+        if (mSweepAt == 0 || deadline < mSweepAt) {
+
+            mSweepAt = deadline;
+
+            mExecutor.cancel(mSweep);
+            mExecutor.executeAt(mSweep, deadline);
+
+        }
+
+    }
+
+    private boolean isExpired(T toast, long now) {
+
+        final long deadline = mCallback.getDeadline(toast);
+
+        return deadline > 0 && deadline <= now;
+
+    }
+
+    /**
+     * Drops a toast that is no longer queued because it expired.
+     */
+    private void expire(T toast) {
+
+        mExpiredCount++;
+
+        removeHandle(toast);
+
+        drop(toast);
+
+    }
+
+    private void drop(T toast) {
+
+        record(ToastMetrics.Event.DROPPED, toast);
+
+        mCallback.onDrop(toast);
+
+    }
+
+    private void record(ToastMetrics.Event event, T toast) {
+
+        mMetrics.record(event, mCallback.getHandle(toast), mClock.now(), mQueue.size());
+
+    }
+
+    private void putHandle(T toast) {
+
+        final ToastHandle handle = mCallback.getHandle(toast);
+
+        if (handle != null) {
+
+            mHandles.put(handle, toast);
+
+        }
+
+    }
+
+    private void removeHandle(T toast) {
+
+        final ToastHandle handle = mCallback.getHandle(toast);
+
+        if (handle != null) {
+
+            mHandles.remove(handle);
+
+        }
+
+    }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.Arrays;
+
+/**
+ * The {@link ToastTracer} in use and the names of the sections the library traces.
+ */
+final class ToastTrace {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "ToastTrace";
+
+    static final String XTOAST_INFLATE = "XToast#inflate";
+    static final String XTOAST_ADD_VIEW = "XToast#addView";
+    static final String XTOAST_SHOW_ANIMATION = "XToast#showAnimation";
+    static final String XTOAST_DISMISS_ANIMATION = "XToast#dismissAnimation";
+    static final String XTOAST_REMOVE_VIEW = "XToast#removeView";
+
+    static final String ACTIVITY_INFLATE = "XActivityToast#inflate";
+    static final String ACTIVITY_ADD_VIEW = "XActivityToast#addView";
+    static final String ACTIVITY_SHOW_ANIMATION = "XActivityToast#showAnimation";
+    static final String ACTIVITY_DISMISS_ANIMATION = "XActivityToast#dismissAnimation";
+    static final String ACTIVITY_REMOVE_VIEW = "XActivityToast#removeView";
+
+    static final String CARD_INFLATE = "XCardToast#inflate";
+    static final String CARD_ADD_VIEW = "XCardToast#addView";
+    static final String CARD_SHOW_ANIMATION = "XCardToast#showAnimation";
+    static final String CARD_DISMISS_ANIMATION = "XCardToast#dismissAnimation";
+    static final String CARD_REMOVE_VIEW = "XCardToast#removeView";
+
+    /* Toasts may be built off the main thread */
+    private static volatile ToastTracer sTracer = ToastTracer.NONE;
+
+    /* The tracer each open section began on, so a tracer change cannot unbalance them */
+    private static final ThreadLocal<Sections> sSections = new ThreadLocal<Sections>() {
+
+        @Override
+        protected Sections initialValue() {
+
+            return new Sections();
+
+        }
+
+    };
+
+    private ToastTrace() {
+
+    }
+
+    static void setTracer(ToastTracer tracer) {
+
+        sTracer = tracer != null ? tracer : ToastTracer.NONE;
+
+    }
+
+    static void begin(String sectionName) {
+
+        final ToastTracer tracer = sTracer;
+
+        sSections.get().push(tracer);
+
+        tracer.beginSection(sectionName);
+
+    }
+
+    static void end() {
+
+        final ToastTracer tracer = sSections.get().pop();
+
+        if (tracer != null) {
+
+            tracer.endSection();
+
+        }
+
+    }
+
+    /**
+     * Inflates a toast layout inside a section.
+     */
+    static View inflate(LayoutInflater layoutInflater, int layout, ViewGroup root,
+                        String sectionName) {
+
+        final ToastTracer tracer = sTracer;
+
+        tracer.beginSection(sectionName);
+
+        try {
+
+            return root != null ? layoutInflater.inflate(layout, root, false)
+                    : layoutInflater.inflate(layout, null);
+
+        } finally {
+
+            tracer.endSection();
+
+        }
+
+    }
+
+    /* Stack of the tracers of the sections open on one thread */
+    private static final class Sections {
+
+        private ToastTracer[] mTracers = new ToastTracer[4];
+        private int mDepth;
+
+        void push(ToastTracer tracer) {
+
+            if (mDepth == mTracers.length) {
+
+                mTracers = Arrays.copyOf(mTracers, mDepth * 2);
+
+            }
+
+            mTracers[mDepth++] = tracer;
+
+        }
+
+        ToastTracer pop() {
+
+            if (mDepth == 0) {
+
+                return null;
+
+            }
+
+            final ToastTracer tracer = mTracers[--mDepth];
+
+            mTracers[mDepth] = null;
+
+            return tracer;
+
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+/**
+ * Receives the begin and end of the expensive phases of a toast: inflating its layout,
+ * adding its view, starting its show and dismiss animations and removing its view. Sections
+ * nest and are always closed on the thread that opened them, in the manner of
+ * android.os.Trace. Set one with XToast.setTracer(), it is used by XToasts, XActivityToasts
+ * and XCardToasts alike. Use {@link SystemToastTracer} to see the sections in systrace and
+ * Perfetto, or bridge to your own spans. Section names are constants, so tracing does not
+ * allocate.
+ */
+public interface ToastTracer {
+
+    /**
+     * Traces nothing, the default.
+     */
+    ToastTracer NONE = new ToastTracer() {
+
+        @Override
+        public void beginSection(String sectionName) {
+
+            /* Do nothing */
+
+        }
+
+        @Override
+        public void endSection() {
+
+            /* Do nothing */
+
+        }
+
+    };
+
+    /**
+     * Opens a section, such as "XActivityToast#inflate".
+     *
+     * @param sectionName {@link String}
+     */
+    void beginSection(String sectionName);
+
+    /**
+     * Closes the most recently opened section of this thread.
+     */
+    void endSection();
+
+}
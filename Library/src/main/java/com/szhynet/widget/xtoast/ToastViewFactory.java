@@ -0,0 +1,725 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Typeface;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+/**
+ * Builds the library's toast layouts in code instead of inflating them, which skips the XML
+ * parsing and the reflection of LayoutInflater. The views, ids, sizes, colors and drawables
+ * are the same as in supertoast.xml, supercardtoast.xml and the button and progress layouts,
+ * with the values of styles.xml and dimen.xml. Off for every type until turned on with
+ * {@link #setEnabled(XToast.Type, boolean)}. Layouts added to the parent of a view other
+ * than a FrameLayout or LinearLayout are always inflated. STANDARD toasts can be built as
+ * a single {@link FlatToastView} instead with {@link #setFlatEnabled(boolean)}. Get it with
+ * XToast.getViewFactory().
+ */
+public final class ToastViewFactory {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "ToastViewFactory";
+
+    /* The text of the layouts before a toast sets its own */
+    private static final String DEFAULT_TEXT = "Default";
+    private static final String BUTTON_TEXT = "UNDO";
+
+    /* layout_gravity not set */
+    private static final int UNSPECIFIED_GRAVITY = -1;
+
+    private static final class Holder {
+
+        private static final ToastViewFactory INSTANCE = new ToastViewFactory();
+
+    }
+
+    /* One bit per XToast.Type ordinal */
+    private volatile int mEnabledTypes;
+
+    private volatile boolean mFlatEnabled;
+
+    private ToastViewFactory() {
+
+    }
+
+    static ToastViewFactory getInstance() {
+
+        return Holder.INSTANCE;
+
+    }
+
+    /**
+     * Builds the views of a type in code instead of inflating its layouts, for every
+     * XToast, XActivityToast and XCardToast created afterwards.
+     *
+     * @param type    {@link XToast.Type}
+     * @param enabled boolean
+     */
+    public synchronized void setEnabled(XToast.Type type, boolean enabled) {
+
+        if (enabled) {
+
+            mEnabledTypes |= 1 << type.ordinal();
+
+        } else {
+
+            mEnabledTypes &= ~(1 << type.ordinal());
+
+        }
+
+    }
+
+    /**
+     * Returns true if the views of a type are built in code.
+     *
+     * @param type {@link XToast.Type}
+     *
+     * @return boolean
+     */
+    public boolean isEnabled(XToast.Type type) {
+
+        return (mEnabledTypes & 1 << type.ordinal()) != 0;
+
+    }
+
+    /**
+     * Builds STANDARD toasts as a single {@link FlatToastView} instead of a LinearLayout
+     * holding a TextView. Their getTextView() returns null while this is on.
+     *
+     * @param flatEnabled boolean
+     */
+    public void setFlatEnabled(boolean flatEnabled) {
+
+        mFlatEnabled = flatEnabled;
+
+    }
+
+    /**
+     * Returns true if STANDARD toasts are built as a {@link FlatToastView}.
+     *
+     * @return boolean
+     */
+    public boolean isFlatEnabled() {
+
+        return mFlatEnabled;
+
+    }
+
+    /**
+     * Builds supertoast.xml or supercardtoast.xml as a single {@link FlatToastView}, with
+     * the same size, padding, text and background. Returns null for other layouts or a
+     * parent other than a FrameLayout or LinearLayout.
+     *
+     * @param context {@link Context}
+     * @param layout  layout resource of the library
+     * @param root    parent the view will be added to, may be null
+     *
+     * @return {@link FlatToastView}
+     */
+    public FlatToastView createFlat(Context context, int layout, ViewGroup root) {
+
+        if (root != null && !(root instanceof FrameLayout) && !(root instanceof LinearLayout)) {
+
+            return null;
+
+        }
+
+        if (layout == R.layout.supertoast) {
+
+            final FlatToastView flatToastView = createFlatToastView(context);
+            flatToastView.setGravity(Gravity.CENTER);
+
+            final ViewGroup.MarginLayoutParams layoutParams = createLayoutParams(root,
+                    ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                    Gravity.BOTTOM | Gravity.CENTER_HORIZONTAL);
+
+            if (layoutParams != null) {
+
+                layoutParams.bottomMargin = context.getResources()
+                        .getDimensionPixelSize(R.dimen.toast_hover);
+
+                flatToastView.setLayoutParams(layoutParams);
+
+            }
+
+            return flatToastView;
+
+        } else if (layout == R.layout.supercardtoast) {
+
+            final FlatToastView flatToastView = createFlatToastView(context);
+            flatToastView.setGravity(Gravity.CENTER_VERTICAL);
+
+            final ViewGroup.MarginLayoutParams layoutParams = createLayoutParams(root,
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                    UNSPECIFIED_GRAVITY);
+
+            if (layoutParams != null) {
+
+                final int margin = context.getResources()
+                        .getDimensionPixelSize(R.dimen.cardtoast_margin);
+
+                layoutParams.setMargins(margin, margin, margin, margin);
+
+                flatToastView.setLayoutParams(layoutParams);
+
+            }
+
+            return flatToastView;
+
+        }
+
+        return null;
+
+    }
+
+    /**
+     * Builds one of the library's layouts in code, with layout params for the parent like
+     * LayoutInflater.inflate(layout, root, false) would make. Returns null for a layout
+     * it does not know or a parent other than a FrameLayout or LinearLayout.
+     *
+     * @param context {@link Context}
+     * @param layout  layout resource of the library
+     * @param root    parent the view will be added to, may be null
+     *
+     * @return {@link View}
+     */
+    public View create(Context context, int layout, ViewGroup root) {
+
+        if (root != null && !(root instanceof FrameLayout) && !(root instanceof LinearLayout)) {
+
+            return null;
+
+        }
+
+        if (layout == R.layout.supertoast) {
+
+            return createSuperToast(context, root);
+
+        } else if (layout == R.layout.supercardtoast) {
+
+            return createSuperCardToast(context, root);
+
+        } else if (layout == R.layout.supercardtoast_button) {
+
+            return createSuperCardToastButton(context, root);
+
+        } else if (layout == R.layout.supercardtoast_progresscircle) {
+
+            return createSuperCardToastProgressCircle(context, root);
+
+        } else if (layout == R.layout.supercardtoast_progresshorizontal) {
+
+            return createSuperCardToastProgressHorizontal(context, root);
+
+        } else if (layout == R.layout.superactivitytoast_button) {
+
+            return createSuperActivityToastButton(context, root);
+
+        } else if (layout == R.layout.superactivitytoast_progresscircle) {
+
+            return createSuperActivityToastProgressCircle(context, root);
+
+        } else if (layout == R.layout.superactivitytoast_progresshorizontal) {
+
+            return createSuperActivityToastProgressHorizontal(context, root);
+
+        }
+
+        return null;
+
+    }
+
+    /**
+     * Builds the layout in code if its type is enabled, inflates it otherwise.
+     */
+    View inflate(LayoutInflater layoutInflater, int layout, ViewGroup root, String sectionName) {
+
+        final XToast.Type type = getType(layout);
+
+        final boolean flat = type == XToast.Type.STANDARD && mFlatEnabled;
+
+        if (type == null || !flat && !isEnabled(type)) {
+
+            return ToastTrace.inflate(layoutInflater, layout, root, sectionName);
+
+        }
+
+        View view;
+
+        ToastTrace.begin(sectionName);
+
+        try {
+
+            view = flat ? createFlat(layoutInflater.getContext(), layout, root)
+                    : create(layoutInflater.getContext(), layout, root);
+
+        } finally {
+
+            ToastTrace.end();
+
+        }
+
+        if (view == null) {
+
+            view = ToastTrace.inflate(layoutInflater, layout, root, sectionName);
+
+        }
+
+        return view;
+
+    }
+
+    private static XToast.Type getType(int layout) {
+
+        if (layout == R.layout.supertoast || layout == R.layout.supercardtoast) {
+
+            return XToast.Type.STANDARD;
+
+        } else if (layout == R.layout.supercardtoast_button
+                || layout == R.layout.superactivitytoast_button) {
+
+            return XToast.Type.BUTTON;
+
+        } else if (layout == R.layout.supercardtoast_progresscircle
+                || layout == R.layout.superactivitytoast_progresscircle) {
+
+            return XToast.Type.PROGRESS;
+
+        } else if (layout == R.layout.supercardtoast_progresshorizontal
+                || layout == R.layout.superactivitytoast_progresshorizontal) {
+
+            return XToast.Type.PROGRESS_HORIZONTAL;
+
+        }
+
+        return null;
+
+    }
+
+    /* supertoast.xml */
+    private static View createSuperToast(Context context, ViewGroup root) {
+
+        final Resources resources = context.getResources();
+
+        final LinearLayout rootLayout = createRootLayout(context, LinearLayout.HORIZONTAL);
+
+        final ViewGroup.MarginLayoutParams layoutParams = createLayoutParams(root,
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                Gravity.BOTTOM | Gravity.CENTER_HORIZONTAL);
+
+        if (layoutParams != null) {
+
+            layoutParams.bottomMargin = resources.getDimensionPixelSize(R.dimen.toast_hover);
+
+            rootLayout.setLayoutParams(layoutParams);
+
+        }
+
+        final TextView textView = createTextView(context, 14, 16, 8, 16, 8);
+        textView.setGravity(Gravity.CENTER);
+
+        rootLayout.addView(textView, new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        return rootLayout;
+
+    }
+
+    /* supercardtoast.xml */
+    private static View createSuperCardToast(Context context, ViewGroup root) {
+
+        final LinearLayout rootLayout = createCardRootLayout(context, root,
+                LinearLayout.HORIZONTAL);
+
+        final TextView textView = createTextView(context, 14, 16, 8, 16, 8);
+        textView.setGravity(Gravity.CENTER_VERTICAL);
+
+        rootLayout.addView(textView, createWeightedLayoutParams());
+
+        return rootLayout;
+
+    }
+
+    /* supercardtoast_button.xml */
+    private static View createSuperCardToastButton(Context context, ViewGroup root) {
+
+        final LinearLayout rootLayout = createCardRootLayout(context, root,
+                LinearLayout.HORIZONTAL);
+
+        final TextView textView = createTextView(context, 16, 16, 12, 16, 12);
+        textView.setGravity(Gravity.CENTER_VERTICAL);
+
+        rootLayout.addView(textView, createWeightedLayoutParams());
+
+        rootLayout.addView(createDivider(context), createDividerLayoutParams(context));
+
+        final Button button = createButton(context, 4);
+        button.setPadding(getPixels(context, 10), button.getPaddingTop(),
+                getPixels(context, 10), button.getPaddingBottom());
+
+        rootLayout.addView(button, new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        return rootLayout;
+
+    }
+
+    /* supercardtoast_progresscircle.xml */
+    private static View createSuperCardToastProgressCircle(Context context, ViewGroup root) {
+
+        final LinearLayout rootLayout = createCardRootLayout(context, root,
+                LinearLayout.HORIZONTAL);
+
+        final ProgressBar progressBar = createProgressBar(context,
+                android.R.attr.progressBarStyle);
+
+        final LinearLayout.LayoutParams progressLayoutParams = new LinearLayout.LayoutParams(
+                getPixels(context, 32), ViewGroup.LayoutParams.MATCH_PARENT);
+
+        final int margin = getPixels(context, 4);
+        progressLayoutParams.setMargins(margin, margin, margin, margin);
+
+        rootLayout.addView(progressBar, progressLayoutParams);
+
+        final TextView textView = createTextView(context, 14, 0, 8, 16, 8);
+        textView.setGravity(Gravity.CENTER_VERTICAL);
+
+        rootLayout.addView(textView, createWeightedLayoutParams());
+
+        return rootLayout;
+
+    }
+
+    /* supercardtoast_progresshorizontal.xml */
+    private static View createSuperCardToastProgressHorizontal(Context context,
+                                                               ViewGroup root) {
+
+        final LinearLayout rootLayout = createCardRootLayout(context, root,
+                LinearLayout.VERTICAL);
+
+        final TextView textView = createTextView(context, 14, 16, 8, 16, 4);
+        textView.setGravity(Gravity.CENTER);
+
+        final LinearLayout.LayoutParams textLayoutParams = new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        textLayoutParams.gravity = Gravity.CENTER_VERTICAL;
+
+        rootLayout.addView(textView, textLayoutParams);
+
+        final ProgressBar progressBar = createProgressBar(context,
+                android.R.attr.progressBarStyleHorizontal);
+        progressBar.setPadding(getPixels(context, 8), progressBar.getPaddingTop(),
+                getPixels(context, 8), getPixels(context, 4));
+
+        rootLayout.addView(progressBar, new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        return rootLayout;
+
+    }
+
+    /* superactivitytoast_button.xml */
+    private static View createSuperActivityToastButton(Context context, ViewGroup root) {
+
+        final Resources resources = context.getResources();
+
+        final LinearLayout rootLayout = createRootLayout(context, LinearLayout.HORIZONTAL);
+
+        final ViewGroup.MarginLayoutParams layoutParams = createLayoutParams(root,
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                Gravity.BOTTOM | Gravity.CENTER_HORIZONTAL);
+
+        if (layoutParams != null) {
+
+            final int xPadding = resources.getDimensionPixelSize(R.dimen.buttontoast_x_padding);
+
+            layoutParams.setMargins(xPadding, 0, xPadding,
+                    resources.getDimensionPixelSize(R.dimen.buttontoast_hover));
+
+            rootLayout.setLayoutParams(layoutParams);
+
+        }
+
+        final TextView textView = createTextView(context, 16, 16, 12, 16, 12);
+        textView.setGravity(Gravity.CENTER_VERTICAL);
+
+        rootLayout.addView(textView, createWeightedLayoutParams());
+
+        rootLayout.addView(createDivider(context), createDividerLayoutParams(context));
+
+        final Button button = createButton(context, 8);
+        button.setPadding(getPixels(context, 16), button.getPaddingTop(),
+                getPixels(context, 12), button.getPaddingBottom());
+
+        rootLayout.addView(button, new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        return rootLayout;
+
+    }
+
+    /* superactivitytoast_progresscircle.xml */
+    private static View createSuperActivityToastProgressCircle(Context context,
+                                                               ViewGroup root) {
+
+        final LinearLayout rootLayout = createActivityRootLayout(context, root);
+
+        final ProgressBar progressBar = createProgressBar(context,
+                android.R.attr.progressBarStyle);
+
+        final LinearLayout.LayoutParams progressLayoutParams = new LinearLayout.LayoutParams(
+                getPixels(context, 32), ViewGroup.LayoutParams.MATCH_PARENT);
+        progressLayoutParams.setMargins(getPixels(context, 8), getPixels(context, 4), 0,
+                getPixels(context, 4));
+
+        rootLayout.addView(progressBar, progressLayoutParams);
+
+        final TextView textView = createTextView(context, 14, 4, 8, 16, 8);
+        textView.setGravity(Gravity.CENTER);
+
+        rootLayout.addView(textView, new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        return rootLayout;
+
+    }
+
+    /* superactivitytoast_progresshorizontal.xml */
+    private static View createSuperActivityToastProgressHorizontal(Context context,
+                                                                   ViewGroup root) {
+
+        final LinearLayout rootLayout = createActivityRootLayout(context, root);
+        rootLayout.setOrientation(LinearLayout.VERTICAL);
+        rootLayout.setMinimumWidth(getPixels(context, 128));
+
+        final TextView textView = createTextView(context, 14, 16, 8, 16, 0);
+        textView.setGravity(Gravity.CENTER);
+
+        rootLayout.addView(textView, new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        final ProgressBar progressBar = createProgressBar(context,
+                android.R.attr.progressBarStyleHorizontal);
+
+        final LinearLayout.LayoutParams progressLayoutParams = new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        progressLayoutParams.setMargins(getPixels(context, 12), 0, getPixels(context, 12),
+                getPixels(context, 4));
+
+        rootLayout.addView(progressBar, progressLayoutParams);
+
+        return rootLayout;
+
+    }
+
+    /* DefaultRootLayout and DefaultText in one view */
+    private static FlatToastView createFlatToastView(Context context) {
+
+        final FlatToastView flatToastView = new FlatToastView(context);
+        flatToastView.setId(R.id.root_layout);
+        flatToastView.setBackgroundResource(R.drawable.background_standard_gray);
+        flatToastView.setText(DEFAULT_TEXT);
+        flatToastView.setTextColor(context.getResources().getColor(R.color.white));
+        flatToastView.setCompoundDrawablePadding(getPixels(context, 4));
+        flatToastView.setPadding(getPixels(context, 16), getPixels(context, 8),
+                getPixels(context, 16), getPixels(context, 8));
+
+        return flatToastView;
+
+    }
+
+    /* DefaultRootLayout */
+    private static LinearLayout createRootLayout(Context context, int orientation) {
+
+        final LinearLayout rootLayout = new LinearLayout(context);
+        rootLayout.setId(R.id.root_layout);
+        rootLayout.setOrientation(orientation);
+        rootLayout.setBackgroundResource(R.drawable.background_standard_gray);
+
+        return rootLayout;
+
+    }
+
+    /* The wrap_content root of the progress SuperActivityToasts, hovering over the bottom */
+    private static LinearLayout createActivityRootLayout(Context context, ViewGroup root) {
+
+        final LinearLayout rootLayout = createRootLayout(context, LinearLayout.HORIZONTAL);
+
+        final ViewGroup.MarginLayoutParams layoutParams = createLayoutParams(root,
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                Gravity.BOTTOM | Gravity.CENTER_HORIZONTAL);
+
+        if (layoutParams != null) {
+
+            layoutParams.bottomMargin = context.getResources()
+                    .getDimensionPixelSize(R.dimen.toast_hover);
+
+            rootLayout.setLayoutParams(layoutParams);
+
+        }
+
+        return rootLayout;
+
+    }
+
+    /* The match_parent root of the SuperCardToasts with cardtoast_margin around it */
+    private static LinearLayout createCardRootLayout(Context context, ViewGroup root,
+                                                     int orientation) {
+
+        final LinearLayout rootLayout = createRootLayout(context, orientation);
+
+        final ViewGroup.MarginLayoutParams layoutParams = createLayoutParams(root,
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                UNSPECIFIED_GRAVITY);
+
+        if (layoutParams != null) {
+
+            final int margin = context.getResources()
+                    .getDimensionPixelSize(R.dimen.cardtoast_margin);
+
+            layoutParams.setMargins(margin, margin, margin, margin);
+
+            rootLayout.setLayoutParams(layoutParams);
+
+        }
+
+        return rootLayout;
+
+    }
+
+    /* The layout params the parent would generate, null without a parent */
+    private static ViewGroup.MarginLayoutParams createLayoutParams(ViewGroup root, int width,
+                                                                   int height, int gravity) {
+
+        if (root instanceof FrameLayout) {
+
+            return new FrameLayout.LayoutParams(width, height, gravity);
+
+        } else if (root instanceof LinearLayout) {
+
+            final LinearLayout.LayoutParams layoutParams =
+                    new LinearLayout.LayoutParams(width, height);
+            layoutParams.gravity = gravity;
+
+            return layoutParams;
+
+        }
+
+        return null;
+
+    }
+
+    /* DefaultText with the text size and padding of the layout */
+    private static TextView createTextView(Context context, int textSize, int paddingLeft,
+                                           int paddingTop, int paddingRight,
+                                           int paddingBottom) {
+
+        final TextView textView = new TextView(context);
+        textView.setId(R.id.message_textview);
+        textView.setText(DEFAULT_TEXT);
+        textView.setTextColor(context.getResources().getColor(R.color.white));
+        textView.setTextSize(TypedValue.COMPLEX_UNIT_SP, textSize);
+        textView.setCompoundDrawablePadding(getPixels(context, 4));
+        textView.setPadding(getPixels(context, paddingLeft), getPixels(context, paddingTop),
+                getPixels(context, paddingRight), getPixels(context, paddingBottom));
+
+        return textView;
+
+    }
+
+    /* 0dp wide, center_vertical and weight 1 */
+    private static LinearLayout.LayoutParams createWeightedLayoutParams() {
+
+        final LinearLayout.LayoutParams layoutParams = new LinearLayout.LayoutParams(0,
+                ViewGroup.LayoutParams.WRAP_CONTENT, 1);
+        layoutParams.gravity = Gravity.CENTER_VERTICAL;
+
+        return layoutParams;
+
+    }
+
+    private static View createDivider(Context context) {
+
+        final View divider = new View(context);
+        divider.setId(R.id.divider);
+        divider.setBackgroundColor(context.getResources().getColor(R.color.light_gray));
+
+        return divider;
+
+    }
+
+    private static LinearLayout.LayoutParams createDividerLayoutParams(Context context) {
+
+        final LinearLayout.LayoutParams layoutParams = new LinearLayout.LayoutParams(
+                getPixels(context, 1), ViewGroup.LayoutParams.MATCH_PARENT);
+        layoutParams.topMargin = getPixels(context, 8);
+        layoutParams.bottomMargin = getPixels(context, 8);
+
+        return layoutParams;
+
+    }
+
+    /* The undo button with selector_undobutton behind it */
+    private static Button createButton(Context context, int drawablePadding) {
+
+        final Button button = new Button(context);
+        button.setId(R.id.button);
+        button.setBackgroundResource(R.drawable.selector_undobutton);
+        button.setCompoundDrawablesWithIntrinsicBounds(XToast.Icon.Dark.UNDO, 0, 0, 0);
+        button.setCompoundDrawablePadding(getPixels(context, drawablePadding));
+        button.setText(BUTTON_TEXT);
+        button.setTextSize(TypedValue.COMPLEX_UNIT_SP, 12);
+        button.setTypeface(button.getTypeface(), Typeface.BOLD);
+        button.setTextColor(context.getResources().getColor(R.color.light_gray));
+
+        return button;
+
+    }
+
+    private static ProgressBar createProgressBar(Context context, int styleAttribute) {
+
+        final ProgressBar progressBar = new ProgressBar(context, null, styleAttribute);
+        progressBar.setId(R.id.progress_bar);
+
+        return progressBar;
+
+    }
+
+    /* Rounds like a dimension resource in dp does */
+    private static int getPixels(Context context, int dp) {
+
+        final float pixels = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dp,
+                context.getResources().getDisplayMetrics());
+
+        final int rounded = (int) (pixels + 0.5f);
+
+        return rounded != 0 || dp == 0 ? rounded : 1;
+
+    }
+
+}
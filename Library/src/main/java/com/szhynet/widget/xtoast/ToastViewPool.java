@@ -0,0 +1,801 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.util.TypedValue;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.Animation;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps the views of dismissed toasts and hands them to the next toast built with the same
+ * layout, context and parent instead of inflating again. A view is put back the way it was
+ * inflated before it is reused: text, colors, sizes, typefaces, drawables, padding, progress,
+ * listeners, visibility, alpha, translation and the size of its layout params. Off until
+ * {@link #setMaxSize(int)} is given a positive size. Views of an activity are released when
+ * it is destroyed and all views are released on memory pressure. Get it with
+ * XToast.getViewPool(). Thread safe, XToasts may be built on any thread.
+ *
+ * <p>A toast whose view was recycled obtains a new view from the pool when it is shown or
+ * changed again, restored to the state the toast left the old one in.
+ */
+public final class ToastViewPool implements Application.ActivityLifecycleCallbacks,
+        ComponentCallbacks2 {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "ToastViewPool";
+
+    private static final class Holder {
+
+        private static final ToastViewPool INSTANCE = new ToastViewPool();
+
+    }
+
+    /* Pooled views by layout, context and parent, few enough for a list */
+    private final ArrayList<Entry> mEntries = new ArrayList<Entry>();
+
+    /* The state a view was inflated with, for views out of the pool */
+    private final WeakHashMap<View, Pristine> mPristine = new WeakHashMap<View, Pristine>();
+
+    private Application mApplication;
+    private int mMaxSize;
+    private long mHits;
+    private long mMisses;
+
+    private ToastViewPool() {
+
+    }
+
+    static ToastViewPool getInstance() {
+
+        return Holder.INSTANCE;
+
+    }
+
+    /**
+     * Sets how many views are kept for each layout, context and parent. Zero turns pooling
+     * off and releases the pooled views.
+     *
+     * @param maxSize int
+     */
+    public synchronized void setMaxSize(int maxSize) {
+
+        this.mMaxSize = Math.max(0, maxSize);
+
+        trimTo(mMaxSize);
+
+    }
+
+    public int getMaxSize() {
+
+        return mMaxSize;
+
+    }
+
+    /**
+     * Returns how many toasts got a pooled view.
+     *
+     * @return long
+     */
+    public synchronized long getHitCount() {
+
+        return mHits;
+
+    }
+
+    /**
+     * Returns how many toasts inflated a view while pooling was on or views inflated ahead
+     * of time were waiting.
+     *
+     * @return long
+     */
+    public synchronized long getMissCount() {
+
+        return mMisses;
+
+    }
+
+    /**
+     * Returns the number of views waiting in the pool.
+     *
+     * @return int
+     */
+    public synchronized int getPooledCount() {
+
+        int count = 0;
+
+        for (int i = 0; i < mEntries.size(); i++) {
+
+            count += mEntries.get(i).mViews.size();
+
+        }
+
+        return count;
+
+    }
+
+    /**
+     * Releases every pooled view.
+     */
+    public synchronized void trim() {
+
+        trimTo(0);
+
+    }
+
+    /**
+     * Returns a pooled view of the layout if there is one that has finished animating,
+     * otherwise inflates it. Inflation runs outside the lock.
+     */
+    View obtain(LayoutInflater layoutInflater, int layout, ViewGroup root, String sectionName) {
+
+        final Context context = layoutInflater.getContext();
+
+        final boolean enabled;
+
+        synchronized (this) {
+
+            enabled = mMaxSize > 0;
+
+            /* Views handed off by the async inflater are taken even with pooling off */
+            final View pooled = enabled || getPooledCount() > 0
+                    ? take(context, layout, root) : null;
+
+            if (pooled != null) {
+
+                mHits++;
+
+                return pooled;
+
+            }
+
+            if (enabled) {
+
+                mMisses++;
+
+            }
+
+        }
+
+        final View view = ToastViewFactory.getInstance().inflate(layoutInflater, layout, root,
+                sectionName);
+
+        if (!enabled) {
+
+            return view;
+
+        }
+
+        final Pristine pristine = new Pristine(view, context, layout, root);
+
+        synchronized (this) {
+
+            mPristine.put(view, pristine);
+
+        }
+
+        return view;
+
+    }
+
+    /**
+     * Puts the view of a dismissed toast back the way it was inflated and keeps it for the
+     * next toast. Returns the state the toast had left the view in, for a fresh view to
+     * take over if the toast is shown again. Returns null if the view was not taken, because
+     * the pool did not hand it out, is off or is full, in which case the toast keeps it.
+     */
+    synchronized Pristine recycle(View view) {
+
+        if (view == null || view.getParent() != null || mMaxSize == 0) {
+
+            return null;
+
+        }
+
+        final Pristine pristine = mPristine.get(view);
+
+        if (pristine == null) {
+
+            return null;
+
+        }
+
+        register(pristine.mContext);
+
+        Entry entry = find(pristine.mContext, pristine.mLayout, pristine.mRoot);
+
+        if (entry == null) {
+
+            entry = new Entry(pristine.mContext, pristine.mLayout, pristine.mRoot);
+
+            mEntries.add(entry);
+
+        }
+
+        if (entry.mViews.size() >= mMaxSize) {
+
+            return null;
+
+        }
+
+        final Pristine state = new Pristine(view, pristine.mContext, pristine.mLayout,
+                pristine.mRoot);
+
+        /* The pooled view keeps the drawables it was inflated with */
+        state.leaveInflated(pristine);
+
+        mPristine.remove(view);
+
+        pristine.restore(view);
+
+        entry.mViews.add(view);
+        entry.mPristine.add(pristine);
+
+        return state;
+
+    }
+
+    /**
+     * Pools a view inflated ahead of time. A hand-off view is kept even if the pool is off
+     * or full, the toast it was inflated or prewarmed for takes it next.
+     */
+    synchronized void put(View view, Context context, int layout, ViewGroup root,
+                          boolean handOff) {
+
+        if (!handOff && mMaxSize == 0) {
+
+            return;
+
+        }
+
+        Entry entry = find(context, layout, root);
+
+        if (entry == null) {
+
+            entry = new Entry(context, layout, root);
+
+            mEntries.add(entry);
+
+        }
+
+        if (!handOff && entry.mViews.size() >= mMaxSize) {
+
+            return;
+
+        }
+
+        register(context);
+
+        entry.mViews.add(view);
+        entry.mPristine.add(new Pristine(view, context, layout, root));
+
+    }
+
+    private View take(Context context, int layout, ViewGroup root) {
+
+        final Entry entry = find(context, layout, root);
+
+        if (entry == null) {
+
+            return null;
+
+        }
+
+        for (int i = entry.mViews.size() - 1; i >= 0; i--) {
+
+            final View view = entry.mViews.get(i);
+
+            final Animation animation = view.getAnimation();
+
+            /* A removed view keeps drawing until its dismiss animation ends */
+            if (animation == null || animation.hasEnded()) {
+
+                entry.mViews.remove(i);
+
+                view.clearAnimation();
+
+                mPristine.put(view, entry.mPristine.remove(i));
+
+                return view;
+
+            }
+
+        }
+
+        return null;
+
+    }
+
+    private Entry find(Context context, int layout, ViewGroup root) {
+
+        for (int i = 0; i < mEntries.size(); i++) {
+
+            final Entry entry = mEntries.get(i);
+
+            if (entry.mContext == context && entry.mLayout == layout && entry.mRoot == root) {
+
+                return entry;
+
+            }
+
+        }
+
+        return null;
+
+    }
+
+    private void trimTo(int size) {
+
+        for (int i = mEntries.size() - 1; i >= 0; i--) {
+
+            final Entry entry = mEntries.get(i);
+
+            while (entry.mViews.size() > size) {
+
+                entry.mViews.remove(entry.mViews.size() - 1);
+                entry.mPristine.remove(entry.mPristine.size() - 1);
+
+            }
+
+            if (entry.mViews.isEmpty()) {
+
+                mEntries.remove(i);
+
+            }
+
+        }
+
+    }
+
+    /* Listens for destroyed activities and memory pressure once there is something to free */
+    private void register(Context context) {
+
+        if (mApplication != null) {
+
+            return;
+
+        }
+
+        final Context applicationContext = context.getApplicationContext();
+
+        if (applicationContext instanceof Application) {
+
+            mApplication = (Application) applicationContext;
+
+            mApplication.registerActivityLifecycleCallbacks(this);
+            mApplication.registerComponentCallbacks(this);
+
+        }
+
+    }
+
+    @Override
+    public synchronized void onTrimMemory(int level) {
+
+        /* Toasts are cheap to inflate again, only a running app under light pressure keeps half */
+        trimTo(level >= TRIM_MEMORY_RUNNING_LOW ? 0 : mMaxSize / 2);
+
+    }
+
+    @Override
+    public void onLowMemory() {
+
+        trim();
+
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+
+        /* Views inflated for the old configuration must not be reused */
+        trim();
+
+    }
+
+    @Override
+    public synchronized void onActivityDestroyed(Activity activity) {
+
+        for (int i = mEntries.size() - 1; i >= 0; i--) {
+
+            if (mEntries.get(i).mContext == activity) {
+
+                mEntries.remove(i);
+
+            }
+
+        }
+
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+
+        /* Do nothing */
+
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+
+        /* Do nothing */
+
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+
+        /* Do nothing */
+
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+
+        /* Do nothing */
+
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+
+        /* Do nothing */
+
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+
+        /* Do nothing */
+
+    }
+
+    private static final class Entry {
+
+        final Context mContext;
+        final int mLayout;
+        final ViewGroup mRoot;
+        final ArrayList<View> mViews = new ArrayList<View>();
+        final ArrayList<Pristine> mPristine = new ArrayList<Pristine>();
+
+        Entry(Context context, int layout, ViewGroup root) {
+
+            this.mContext = context;
+            this.mLayout = layout;
+            this.mRoot = root;
+
+        }
+
+    }
+
+    /**
+     * What a toast may change on the views of a layout, as inflated or as a recycled toast
+     * left them, in depth first order. Holds no reference to the views so the pool can forget
+     * views that are never recycled.
+     */
+    static final class Pristine {
+
+        final Context mContext;
+        final int mLayout;
+        final ViewGroup mRoot;
+        final ArrayList<State> mStates = new ArrayList<State>();
+
+        Pristine(View view, Context context, int layout, ViewGroup root) {
+
+            this.mContext = context;
+            this.mLayout = layout;
+            this.mRoot = root;
+
+            save(view);
+
+        }
+
+        private void save(View view) {
+
+            mStates.add(new State(view));
+
+            if (view instanceof ViewGroup) {
+
+                final ViewGroup viewGroup = (ViewGroup) view;
+
+                for (int i = 0; i < viewGroup.getChildCount(); i++) {
+
+                    save(viewGroup.getChildAt(i));
+
+                }
+
+            }
+
+        }
+
+        void restore(View view) {
+
+            restore(view, 0);
+
+        }
+
+        /**
+         * Leaves out the drawables the view was inflated with, a view of its own already
+         * has them and a drawable must not be shared by two views.
+         */
+        void leaveInflated(Pristine inflated) {
+
+            for (int i = 0; i < mStates.size() && i < inflated.mStates.size(); i++) {
+
+                mStates.get(i).leaveInflated(inflated.mStates.get(i));
+
+            }
+
+        }
+
+        /**
+         * Restores the state onto another view of the layout. Skipped if the tree has a
+         * different shape, e.g. a flat view built after flat views were turned off.
+         */
+        void apply(View view) {
+
+            if (countViews(view) == mStates.size()) {
+
+                restore(view, 0);
+
+            }
+
+        }
+
+        private static int countViews(View view) {
+
+            int count = 1;
+
+            if (view instanceof ViewGroup) {
+
+                final ViewGroup viewGroup = (ViewGroup) view;
+
+                for (int i = 0; i < viewGroup.getChildCount(); i++) {
+
+                    count += countViews(viewGroup.getChildAt(i));
+
+                }
+
+            }
+
+            return count;
+
+        }
+
+        private int restore(View view, int index) {
+
+            mStates.get(index).restore(view);
+
+            int next = index + 1;
+
+            if (view instanceof ViewGroup) {
+
+                final ViewGroup viewGroup = (ViewGroup) view;
+
+                for (int i = 0; i < viewGroup.getChildCount(); i++) {
+
+                    next = restore(viewGroup.getChildAt(i), next);
+
+                }
+
+            }
+
+            return next;
+
+        }
+
+    }
+
+    private static final class State {
+
+        final int mVisibility;
+        final float mAlpha;
+        final Drawable mBackground;
+        final int mPaddingLeft;
+        final int mPaddingTop;
+        final int mPaddingRight;
+        final int mPaddingBottom;
+        final boolean mClickable;
+        final boolean mHasLayoutParams;
+        final int mWidth;
+        final int mHeight;
+
+        /* TextView, Button and FlatToastView */
+        CharSequence mText;
+        ColorStateList mTextColors;
+        int mTextColor;
+        float mTextSize;
+        Typeface mTypeface;
+        Drawable[] mCompoundDrawables;
+
+        /* Drawables to keep as the view has them */
+        boolean mInflatedBackground;
+        boolean[] mInflatedDrawables;
+
+        /* ProgressBar */
+        boolean mIndeterminate;
+        int mMax;
+        int mProgress;
+
+        State(View view) {
+
+            mVisibility = view.getVisibility();
+            mAlpha = view.getAlpha();
+            mBackground = view.getBackground();
+            mPaddingLeft = view.getPaddingLeft();
+            mPaddingTop = view.getPaddingTop();
+            mPaddingRight = view.getPaddingRight();
+            mPaddingBottom = view.getPaddingBottom();
+            mClickable = view.isClickable();
+
+            final ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
+
+            mHasLayoutParams = layoutParams != null;
+            mWidth = mHasLayoutParams ? layoutParams.width : 0;
+            mHeight = mHasLayoutParams ? layoutParams.height : 0;
+
+            if (view instanceof TextView) {
+
+                final TextView textView = (TextView) view;
+
+                mText = textView.getText();
+                mTextColors = textView.getTextColors();
+                mTextSize = textView.getTextSize();
+                mTypeface = textView.getTypeface();
+                mCompoundDrawables = textView.getCompoundDrawables();
+
+            } else if (view instanceof FlatToastView) {
+
+                final FlatToastView flatToastView = (FlatToastView) view;
+
+                mText = flatToastView.getText();
+                mTextColor = flatToastView.getCurrentTextColor();
+                mTextSize = flatToastView.getTextSize();
+                mTypeface = flatToastView.getTypeface();
+                mCompoundDrawables = flatToastView.getCompoundDrawables();
+
+            } else if (view instanceof ProgressBar) {
+
+                final ProgressBar progressBar = (ProgressBar) view;
+
+                mIndeterminate = progressBar.isIndeterminate();
+                mMax = progressBar.getMax();
+                mProgress = progressBar.getProgress();
+
+            }
+
+        }
+
+        void leaveInflated(State inflated) {
+
+            mInflatedBackground = mBackground == inflated.mBackground;
+
+            if (mCompoundDrawables != null && inflated.mCompoundDrawables != null) {
+
+                mInflatedDrawables = new boolean[mCompoundDrawables.length];
+
+                for (int i = 0; i < mCompoundDrawables.length; i++) {
+
+                    mInflatedDrawables[i] =
+                            mCompoundDrawables[i] == inflated.mCompoundDrawables[i];
+
+                }
+
+            }
+
+        }
+
+        /* The drawable to restore at a side, or the one the view has if it was inflated */
+        private Drawable getCompoundDrawable(Drawable[] current, int index) {
+
+            return mInflatedDrawables != null && mInflatedDrawables[index] ? current[index]
+                    : mCompoundDrawables[index];
+
+        }
+
+        @SuppressWarnings("deprecation")
+        void restore(View view) {
+
+            view.setOnTouchListener(null);
+            view.setVisibility(mVisibility);
+            view.setAlpha(mAlpha);
+            view.setTranslationX(0);
+            view.setTranslationY(0);
+            if (!mInflatedBackground) {
+
+                view.setBackgroundDrawable(mBackground);
+
+            }
+            view.setPadding(mPaddingLeft, mPaddingTop, mPaddingRight, mPaddingBottom);
+
+            final ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
+
+            /* Roots inflated without a parent get theirs from the window they are added to */
+            if (mHasLayoutParams && layoutParams != null
+                    && (layoutParams.width != mWidth || layoutParams.height != mHeight)) {
+
+                layoutParams.width = mWidth;
+                layoutParams.height = mHeight;
+
+                view.setLayoutParams(layoutParams);
+
+            }
+
+            if (view instanceof TextView) {
+
+                final TextView textView = (TextView) view;
+
+                view.setOnClickListener(null);
+
+                textView.setText(mText);
+                textView.setTextColor(mTextColors);
+                textView.setTextSize(TypedValue.COMPLEX_UNIT_PX, mTextSize);
+                textView.setTypeface(mTypeface);
+                final Drawable[] current = textView.getCompoundDrawables();
+
+                textView.setCompoundDrawables(getCompoundDrawable(current, 0),
+                        getCompoundDrawable(current, 1), getCompoundDrawable(current, 2),
+                        getCompoundDrawable(current, 3));
+
+            } else if (view instanceof FlatToastView) {
+
+                final FlatToastView flatToastView = (FlatToastView) view;
+
+                flatToastView.setText(mText);
+                flatToastView.setTextColor(mTextColor);
+                flatToastView.setTextSize(TypedValue.COMPLEX_UNIT_PX, mTextSize);
+
+                /* Also clears a fake bold or italic */
+                flatToastView.setTypeface(mTypeface, Typeface.NORMAL);
+                final Drawable[] current = flatToastView.getCompoundDrawables();
+
+                flatToastView.setCompoundDrawables(getCompoundDrawable(current, 0),
+                        getCompoundDrawable(current, 1), getCompoundDrawable(current, 2),
+                        getCompoundDrawable(current, 3));
+
+            } else if (view instanceof ProgressBar) {
+
+                final ProgressBar progressBar = (ProgressBar) view;
+
+                progressBar.setIndeterminate(mIndeterminate);
+                progressBar.setMax(mMax);
+                progressBar.setProgress(mProgress);
+
+            }
+
+            /* Clearing the click listener leaves the view clickable */
+            view.setClickable(mClickable);
+
+        }
+
+    }
+
+}
@@ -25,6 +25,7 @@ import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.Log;
 import android.util.TypedValue;
 import android.view.Gravity;
@@ -41,6 +42,7 @@ import android.widget.TextView;
 
 import com.szhynet.widget.xtoast.utils.OnClickWrapper;
 import com.szhynet.widget.xtoast.utils.OnDismissWrapper;
+import com.szhynet.widget.xtoast.utils.RateLimiter;
 import com.szhynet.widget.xtoast.utils.Style;
 import com.szhynet.widget.xtoast.utils.Wrappers;
 
@@ -67,6 +69,7 @@ public class XActivityToast {
 
     private Activity mActivity;
     private XToast.Animations mAnimations = XToast.Animations.FADE;
+    private XToast.Priority mPriority = XToast.Priority.NORMAL;
     private boolean mIsIndeterminate;
     private boolean mIsTouchDismissible;
     private boolean isProgressIndeterminate;
@@ -74,6 +77,11 @@ public class XActivityToast {
     private Button mButton;
     private XToast.IconPosition mIconPosition;
     private int mDuration = XToast.Duration.SHORT;
+    private long mTimeToLive;
+    private long mDeadline;
+    private long mRemainingDuration;
+    private int mCoalescedCount = 1;
+    private int mCollapsedCount;
     private int mBackground = Style.getBackground(Style.GRAY);
     private int mButtonIcon = XToast.Icon.Dark.UNDO;
     private int mDividerColor = Color.LTGRAY;
@@ -81,20 +89,36 @@ public class XActivityToast {
     private int mTypefaceStyle = Typeface.NORMAL;
     private int mButtonTypefaceStyle = Typeface.BOLD;
     private LayoutInflater mLayoutInflater;
-    private LinearLayout mRootLayout;
+    private View mRootLayout;
     private OnDismissWrapper mOnDismissWrapper;
     private OnClickWrapper mOnClickWrapper;
     private Parcelable mToken;
     private ProgressBar mProgressBar;
     private String mOnClickWrapperTag;
     private String mOnDismissWrapperTag;
+    private String mCoalesceKey;
+    private final ToastHandle mHandle = new ToastHandle();
+    private volatile boolean mRecycled;
+    private ToastViewPool.Pristine mRecycledState;
+    private CharSequence mCoalescedText;
     private TextView mMessageTextView;
+    private FlatToastView mFlatToastView;
     private XToast.Type mType = XToast.Type.STANDARD;
     private View mDividerView;
     private ViewGroup mViewGroup;
     private View mToastView;
     private Drawable mBackgroundDrawable=null;
 
+    /**
+     * Receives a {@value #TAG} built with
+     * {@link #createAsync(Activity, XToast.Type, Style, OnCreateListener)}.
+     */
+    public interface OnCreateListener {
+
+        void onCreate(XActivityToast xActivityToast);
+
+    }
+
     /**
      * Instantiates a new {@value #TAG}.
      *
@@ -114,14 +138,16 @@ public class XActivityToast {
         mViewGroup = (ViewGroup) activity
                 .findViewById(android.R.id.content);
 
-        mToastView = mLayoutInflater.inflate(R.layout.supertoast,
-                mViewGroup, false);
+        mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                R.layout.supertoast, mViewGroup, ToastTrace.ACTIVITY_INFLATE);
 
         mMessageTextView = (TextView) mToastView
                 .findViewById(R.id.message_textview);
 
-        mRootLayout = (LinearLayout) mToastView
-                .findViewById(R.id.root_layout);
+        mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                : null;
+
+        mRootLayout = mToastView.findViewById(R.id.root_layout);
 
     }
 
@@ -147,14 +173,16 @@ public class XActivityToast {
         mViewGroup = (ViewGroup) activity
                 .findViewById(android.R.id.content);
 
-        mToastView = mLayoutInflater.inflate(R.layout.supertoast,
-                mViewGroup, false);
+        mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                R.layout.supertoast, mViewGroup, ToastTrace.ACTIVITY_INFLATE);
 
         mMessageTextView = (TextView) mToastView
                 .findViewById(R.id.message_textview);
 
-        mRootLayout = (LinearLayout) mToastView
-                .findViewById(R.id.root_layout);
+        mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                : null;
+
+        mRootLayout = mToastView.findViewById(R.id.root_layout);
 
         this.setStyle(style);
 
@@ -185,13 +213,13 @@ public class XActivityToast {
 
         if (type == XToast.Type.STANDARD) {
 
-            mToastView = mLayoutInflater.inflate(
-                    R.layout.supertoast, mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.supertoast, mViewGroup, ToastTrace.ACTIVITY_INFLATE);
 
         } else if (type == XToast.Type.BUTTON) {
 
-            mToastView = mLayoutInflater.inflate(
-                    R.layout.superactivitytoast_button, mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.superactivitytoast_button, mViewGroup, ToastTrace.ACTIVITY_INFLATE);
 
             mButton = (Button) mToastView
                     .findViewById(R.id.button);
@@ -203,16 +231,18 @@ public class XActivityToast {
 
         } else if (type == XToast.Type.PROGRESS) {
 
-            mToastView = mLayoutInflater.inflate(R.layout.superactivitytoast_progresscircle,
-                    mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.superactivitytoast_progresscircle, mViewGroup,
+                    ToastTrace.ACTIVITY_INFLATE);
 
             mProgressBar = (ProgressBar) mToastView
                     .findViewById(R.id.progress_bar);
 
         } else if (type == XToast.Type.PROGRESS_HORIZONTAL) {
 
-            mToastView = mLayoutInflater.inflate(R.layout.superactivitytoast_progresshorizontal,
-                    mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.superactivitytoast_progresshorizontal, mViewGroup,
+                    ToastTrace.ACTIVITY_INFLATE);
 
             mProgressBar = (ProgressBar) mToastView
                     .findViewById(R.id.progress_bar);
@@ -222,8 +252,10 @@ public class XActivityToast {
         mMessageTextView = (TextView) mToastView
                 .findViewById(R.id.message_textview);
 
-        mRootLayout = (LinearLayout) mToastView
-                .findViewById(R.id.root_layout);
+        mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                : null;
+
+        mRootLayout = mToastView.findViewById(R.id.root_layout);
 
     }
 
@@ -253,13 +285,13 @@ public class XActivityToast {
 
         if (type == XToast.Type.STANDARD) {
 
-            mToastView = mLayoutInflater.inflate(
-                    R.layout.supertoast, mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.supertoast, mViewGroup, ToastTrace.ACTIVITY_INFLATE);
 
         } else if (type == XToast.Type.BUTTON) {
 
-            mToastView = mLayoutInflater.inflate(
-                    R.layout.superactivitytoast_button, mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.superactivitytoast_button, mViewGroup, ToastTrace.ACTIVITY_INFLATE);
 
             mButton = (Button) mToastView
                     .findViewById(R.id.button);
@@ -271,16 +303,18 @@ public class XActivityToast {
 
         } else if (type == XToast.Type.PROGRESS) {
 
-            mToastView = mLayoutInflater.inflate(R.layout.superactivitytoast_progresscircle,
-                    mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.superactivitytoast_progresscircle, mViewGroup,
+                    ToastTrace.ACTIVITY_INFLATE);
 
             mProgressBar = (ProgressBar) mToastView
                     .findViewById(R.id.progress_bar);
 
         } else if (type == XToast.Type.PROGRESS_HORIZONTAL) {
 
-            mToastView = mLayoutInflater.inflate(R.layout.superactivitytoast_progresshorizontal,
-                    mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.superactivitytoast_progresshorizontal, mViewGroup,
+                    ToastTrace.ACTIVITY_INFLATE);
 
             mProgressBar = (ProgressBar) mToastView
                     .findViewById(R.id.progress_bar);
@@ -290,8 +324,10 @@ public class XActivityToast {
         mMessageTextView = (TextView) mToastView
                 .findViewById(R.id.message_textview);
 
-        mRootLayout = (LinearLayout) mToastView
-                .findViewById(R.id.root_layout);
+        mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                : null;
+
+        mRootLayout = mToastView.findViewById(R.id.root_layout);
 
         this.setStyle(style);
 
@@ -300,12 +336,137 @@ public class XActivityToast {
     /**
      * Shows the {@value #TAG}. If another {@value #TAG} is showing than
      * this one will be added to a queue and shown when the previous {@value #TAG}
-     * is dismissed.
+     * is dismissed. May be called from any thread, the {@value #TAG} is queued on the
+     * main thread.
+     *
+     * @return {@link ToastHandle} to cancel, query or update this {@value #TAG} later
      */
-    public void show() {
+    public ToastHandle show() {
 
         ManagerXActivityToast.getInstance().add(this);
 
+        return mHandle;
+
+    }
+
+    /**
+     * Used in {@value #MANAGER_TAG} on the main thread before the {@value #TAG} is queued.
+     * Obtains a new view first if the old one was recycled.
+     */
+    void prepareToShow() {
+
+        ensureView();
+
+        mDeadline = mTimeToLive > 0 ? SystemClock.uptimeMillis() + mTimeToLive : 0;
+
+        /* Touching a dismissible toast pauses its display time, others let taps through */
+        mToastView.setOnTouchListener(mPauseOnTouchListener.hasDelegate()
+                ? mPauseOnTouchListener : null);
+
+    }
+
+    /**
+     * Used in {@value #MANAGER_TAG} to hand the view to the view pool once dismissed.
+     */
+    synchronized void recycleView() {
+
+        final ToastViewPool.Pristine state = ToastViewPool.getInstance().recycle(mToastView);
+
+        if (state == null) {
+
+            return;
+
+        }
+
+        /* The view belongs to the pool now, later setters must not reach it */
+        mRecycledState = state;
+
+        mButton = null;
+
+        mDividerView = null;
+
+        mProgressBar = null;
+
+        mMessageTextView = null;
+
+        mFlatToastView = null;
+
+        mRootLayout = null;
+
+        mToastView = null;
+
+        mRecycled = true;
+
+    }
+
+    /**
+     * Obtains a new view from the view pool if the old one was recycled and restores
+     * the state the {@value #TAG} left it in.
+     */
+    private void ensureView() {
+
+        if (!mRecycled) {
+
+            return;
+
+        }
+
+        synchronized (this) {
+
+            if (!mRecycled) {
+
+                return;
+
+            }
+
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    getLayout(mType), mViewGroup, ToastTrace.ACTIVITY_INFLATE);
+
+            mRecycledState.apply(mToastView);
+
+            if (mType == XToast.Type.BUTTON) {
+
+                mButton = (Button) mToastView
+                        .findViewById(R.id.button);
+
+                mDividerView = mToastView
+                        .findViewById(R.id.divider);
+
+                mButton.setOnClickListener(mButtonListener);
+
+            } else if (mType == XToast.Type.PROGRESS
+                    || mType == XToast.Type.PROGRESS_HORIZONTAL) {
+
+                mProgressBar = (ProgressBar) mToastView
+                        .findViewById(R.id.progress_bar);
+
+            }
+
+            mMessageTextView = (TextView) mToastView
+                    .findViewById(R.id.message_textview);
+
+            mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                    : null;
+
+            mRootLayout = mToastView.findViewById(R.id.root_layout);
+
+            mRecycledState = null;
+
+            mRecycled = false;
+
+        }
+
+    }
+
+    /**
+     * Returns the handle of the {@value #TAG}.
+     *
+     * @return {@link ToastHandle}
+     */
+    public ToastHandle getHandle() {
+
+        return mHandle;
+
     }
 
     /**
@@ -326,7 +487,17 @@ public class XActivityToast {
      */
     public void setText(CharSequence text) {
 
-        mMessageTextView.setText(text);
+        ensureView();
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setText(text);
+
+        } else {
+
+            mMessageTextView.setText(text);
+
+        }
 
     }
 
@@ -337,7 +508,10 @@ public class XActivityToast {
      */
     public CharSequence getText() {
 
-        return mMessageTextView.getText();
+        ensureView();
+
+        return mFlatToastView != null ? mFlatToastView.getText()
+                : mMessageTextView.getText();
 
     }
 
@@ -348,9 +522,19 @@ public class XActivityToast {
      */
     public void setTypefaceStyle(int typeface) {
 
+        ensureView();
+
         mTypefaceStyle = typeface;
 
-        mMessageTextView.setTypeface(mMessageTextView.getTypeface(), typeface);
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setTypeface(mFlatToastView.getTypeface(), typeface);
+
+        } else {
+
+            mMessageTextView.setTypeface(mMessageTextView.getTypeface(), typeface);
+
+        }
 
     }
 
@@ -372,7 +556,17 @@ public class XActivityToast {
      */
     public void setTextColor(int textColor) {
 
-        mMessageTextView.setTextColor(textColor);
+        ensureView();
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setTextColor(textColor);
+
+        } else {
+
+            mMessageTextView.setTextColor(textColor);
+
+        }
 
     }
 
@@ -383,7 +577,10 @@ public class XActivityToast {
      */
     public int getTextColor() {
 
-        return mMessageTextView.getCurrentTextColor();
+        ensureView();
+
+        return mFlatToastView != null ? mFlatToastView.getCurrentTextColor()
+                : mMessageTextView.getCurrentTextColor();
 
     }
 
@@ -394,7 +591,17 @@ public class XActivityToast {
      */
     public void setTextSize(int textSize) {
 
-        mMessageTextView.setTextSize(textSize);
+        ensureView();
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setTextSize(textSize);
+
+        } else {
+
+            mMessageTextView.setTextSize(textSize);
+
+        }
 
     }
 
@@ -403,7 +610,17 @@ public class XActivityToast {
      */
     private void setTextSizeFloat(float textSize) {
 
-        mMessageTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSize);
+        ensureView();
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSize);
+
+        } else {
+
+            mMessageTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSize);
+
+        }
 
     }
 
@@ -414,7 +631,10 @@ public class XActivityToast {
      */
     public float getTextSize() {
 
-        return mMessageTextView.getTextSize();
+        ensureView();
+
+        return mFlatToastView != null ? mFlatToastView.getTextSize()
+                : mMessageTextView.getTextSize();
 
     }
 
@@ -440,6 +660,226 @@ public class XActivityToast {
 
     }
 
+    /**
+     * Sets how long the {@value #TAG} may wait in the queue, counted from {@link #show()}.
+     * A {@value #TAG} that has not been shown by then is dropped and its OnDismissWrapper is
+     * called. Zero means no limit.
+     *
+     * @param timeToLive long milliseconds
+     */
+    public void setTimeToLive(long timeToLive) {
+
+        this.mTimeToLive = Math.max(0, timeToLive);
+
+    }
+
+    /**
+     * Returns how long the {@value #TAG} may wait in the queue.
+     *
+     * @return long
+     */
+    public long getTimeToLive() {
+
+        return this.mTimeToLive;
+
+    }
+
+    /**
+     * Used in {@value #MANAGER_TAG}, the uptime after which the {@value #TAG} is dropped
+     * or zero.
+     */
+    long getDeadline() {
+
+        return this.mDeadline;
+
+    }
+
+    /**
+     * Used in {@value #MANAGER_TAG} when a higher priority {@value #TAG} interrupts this one.
+     * It is shown again for the remaining time and no longer expires.
+     */
+    void interrupt(long remainingDuration) {
+
+        this.mRemainingDuration = remainingDuration;
+        this.mDeadline = 0;
+
+    }
+
+    /**
+     * Used in {@value #MANAGER_TAG}, returns how long to show the {@value #TAG} this time.
+     * That is the time left when it was interrupted, or else the full duration.
+     */
+    long takeDisplayDuration() {
+
+        final long duration = mRemainingDuration > 0 ? mRemainingDuration : mDuration;
+
+        mRemainingDuration = 0;
+
+        return duration;
+
+    }
+
+    /**
+     * Sets the priority of the {@value #TAG}. Pending SuperActivityToasts with a higher
+     * priority are shown first.
+     *
+     * @param priority {@link XToast.Priority}
+     */
+    public void setPriority(XToast.Priority priority) {
+
+        this.mPriority = priority;
+
+    }
+
+    /**
+     * Returns the priority of the {@value #TAG}.
+     *
+     * @return {@link XToast.Priority}
+     */
+    public XToast.Priority getPriority() {
+
+        return this.mPriority;
+
+    }
+
+    /**
+     * Sets the key used to merge duplicate SuperActivityToasts when coalescing is enabled.
+     * Without a key SuperActivityToasts are merged by type, text and style.
+     *
+     * @param coalesceKey {@link String}
+     */
+    public void setCoalesceKey(String coalesceKey) {
+
+        this.mCoalesceKey = coalesceKey;
+
+    }
+
+    /**
+     * Returns the coalesce key of the {@value #TAG}, or one derived from its type, text
+     * and style if none was set.
+     *
+     * @return {@link String}
+     */
+    public String getCoalesceKey() {
+
+        if (mCoalesceKey != null) {
+
+            return mCoalesceKey;
+
+        }
+
+        final CharSequence text = mCoalescedText != null ? mCoalescedText : getText();
+
+        return mType.name() + '\u0000' + text + '\u0000' + mBackground + '\u0000'
+                + System.identityHashCode(mBackgroundDrawable) + '\u0000'
+                + getTextColor() + '\u0000' + mTypefaceStyle;
+
+    }
+
+    /**
+     * Returns how many SuperActivityToasts have been merged into this one, itself included.
+     *
+     * @return int
+     */
+    public int getCoalescedCount() {
+
+        return mCoalescedCount;
+
+    }
+
+    /**
+     * Returns how many other SuperActivityToasts were collapsed into this one because the
+     * queue was full.
+     *
+     * @return int
+     */
+    public int getCollapsedCount() {
+
+        return mCollapsedCount;
+
+    }
+
+    /**
+     * Used in {@value #MANAGER_TAG} to merge a duplicate into this {@value #TAG}.
+     */
+    void coalesce() {
+
+        mCoalescedCount++;
+
+        updateCountText();
+
+    }
+
+    /**
+     * Used in {@value #MANAGER_TAG} to summarize a {@value #TAG} that did not fit the queue.
+     */
+    void collapse() {
+
+        mCollapsedCount++;
+
+        updateCountText();
+
+    }
+
+    /**
+     * Used in {@value #MANAGER_TAG} to update the text through a handle while keeping the
+     * merge counters.
+     */
+    void updateText(CharSequence text) {
+
+        if (mCoalescedText != null) {
+
+            mCoalescedText = text;
+
+            updateCountText();
+
+        } else {
+
+            setText(text);
+
+        }
+
+    }
+
+    /**
+     * Appends the merge counters to the original message text.
+     */
+    private void updateCountText() {
+
+        ensureView();
+
+        if (mCoalescedText == null) {
+
+            mCoalescedText = getText();
+
+        }
+
+        final StringBuilder text = new StringBuilder(mCoalescedText);
+
+        if (mCoalescedCount > 1) {
+
+            text.append(" (x").append(mCoalescedCount).append(')');
+
+        }
+
+        if (mCollapsedCount > 0) {
+
+            text.append(" (+").append(mCollapsedCount).append(')');
+
+        }
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setText(text);
+
+        } else {
+
+            mMessageTextView.setText(text);
+
+        }
+
+    }
+
     /**
      * If true will show the {@value #TAG} for an indeterminate time period and ignore any set duration.
      *
@@ -470,27 +910,29 @@ public class XActivityToast {
      */
     public void setIcon(int iconResource, XToast.IconPosition iconPosition) {
 
+        ensureView();
+
         this.mIcon = iconResource;
         this.mIconPosition = iconPosition;
 
         if (iconPosition == XToast.IconPosition.BOTTOM) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null, null,
+            setCompoundDrawables(null, null,
                     null, mActivity.getResources().getDrawable(iconResource));
 
         } else if (iconPosition == XToast.IconPosition.LEFT) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(mActivity.getResources()
+            setCompoundDrawables(mActivity.getResources()
                     .getDrawable(iconResource), null, null, null);
 
         } else if (iconPosition == XToast.IconPosition.RIGHT) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null, null,
+            setCompoundDrawables(null, null,
                     mActivity.getResources().getDrawable(iconResource), null);
 
         } else if (iconPosition == XToast.IconPosition.TOP) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null,
+            setCompoundDrawables(null,
                     mActivity.getResources().getDrawable(iconResource), null, null);
 
         }
@@ -519,12 +961,32 @@ public class XActivityToast {
 
     }
 
+    /**
+     * Private method used to set the icons on the flat view or the message textview.
+     */
+    private void setCompoundDrawables(Drawable left, Drawable top, Drawable right,
+                                      Drawable bottom) {
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setCompoundDrawablesWithIntrinsicBounds(left, top, right, bottom);
+
+        } else {
+
+            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(left, top, right, bottom);
+
+        }
+
+    }
+
     /**
      * Sets the background resource of the {@value #TAG}.
      *
      * @param background {@link XToast.Background}
      */
     public void setBackground(int background) {
+
+        ensureView();
         this.mBackground = background;
         mRootLayout.setBackgroundResource(background);
     }
@@ -533,6 +995,8 @@ public class XActivityToast {
      * @param customBackground
      */
     public void setBackground(Drawable customBackground) {
+
+        ensureView();
         this.mBackgroundDrawable = customBackground;
         mRootLayout.setBackgroundDrawable(customBackground);
     }
@@ -599,15 +1063,7 @@ public class XActivityToast {
 
         this.mIsTouchDismissible = touchDismiss;
 
-        if (touchDismiss) {
-
-            mToastView.setOnTouchListener(mTouchDismissListener);
-
-        } else {
-
-            mToastView.setOnTouchListener(null);
-
-        }
+        mPauseOnTouchListener.setDelegate(touchDismiss ? mTouchDismissListener : null);
 
     }
 
@@ -731,6 +1187,8 @@ public class XActivityToast {
      */
     public void setButtonIcon(int buttonIcon) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.e(TAG, "setButtonIcon()" + ERROR_NOTBUTTONTYPE);
@@ -757,6 +1215,8 @@ public class XActivityToast {
      */
     public void setButtonIcon(int buttonIcon, CharSequence buttonText) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.w(TAG, "setButtonIcon()" + ERROR_NOTBUTTONTYPE);
@@ -796,6 +1256,8 @@ public class XActivityToast {
      */
     public void setDividerColor(int dividerColor) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.e(TAG, "setDivider()" + ERROR_NOTBUTTONTYPE);
@@ -832,6 +1294,8 @@ public class XActivityToast {
      */
     public void setButtonText(CharSequence buttonText) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.e(TAG, "setButtonText()" + ERROR_NOTBUTTONTYPE);
@@ -854,6 +1318,8 @@ public class XActivityToast {
      */
     public CharSequence getButtonText() {
 
+        ensureView();
+
         if(mButton != null) {
 
             return mButton.getText();
@@ -876,6 +1342,8 @@ public class XActivityToast {
      */
     public void setButtonTypefaceStyle(int typefaceStyle) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.e(TAG, "setButtonTypefaceStyle()" + ERROR_NOTBUTTONTYPE);
@@ -912,6 +1380,8 @@ public class XActivityToast {
      */
     public void setButtonTextColor(int buttonTextColor) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.e(TAG, "setButtonTextColor()" + ERROR_NOTBUTTONTYPE);
@@ -934,6 +1404,8 @@ public class XActivityToast {
      */
     public int getButtonTextColor() {
 
+        ensureView();
+
         if(mButton != null) {
 
             return mButton.getCurrentTextColor();
@@ -956,6 +1428,8 @@ public class XActivityToast {
      */
     public void setButtonTextSize(int buttonTextSize) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.e(TAG, "setButtonTextSize()" + ERROR_NOTBUTTONTYPE);
@@ -975,6 +1449,8 @@ public class XActivityToast {
      */
     private void setButtonTextSizeFloat(float buttonTextSize) {
 
+        ensureView();
+
         mButton.setTextSize(TypedValue.COMPLEX_UNIT_PX, buttonTextSize);
 
     }
@@ -987,6 +1463,8 @@ public class XActivityToast {
      */
     public float getButtonTextSize() {
 
+        ensureView();
+
         if(mButton != null) {
 
             return mButton.getTextSize();
@@ -1009,6 +1487,8 @@ public class XActivityToast {
      */
     public void setProgress(int progress) {
 
+        ensureView();
+
         if (mType != XToast.Type.PROGRESS_HORIZONTAL) {
 
             Log.e(TAG, "setProgress()" + ERROR_NOTPROGRESSHORIZONTALTYPE);
@@ -1031,6 +1511,8 @@ public class XActivityToast {
      */
     public int getProgress() {
 
+        ensureView();
+
         if(mProgressBar != null) {
 
             return mProgressBar.getProgress();
@@ -1053,6 +1535,8 @@ public class XActivityToast {
      */
     public void setMaxProgress(int maxProgress) {
 
+        ensureView();
+
         if (mType != XToast.Type.PROGRESS_HORIZONTAL) {
 
             Log.e(TAG, "setMaxProgress()" + ERROR_NOTPROGRESSHORIZONTALTYPE);
@@ -1075,6 +1559,8 @@ public class XActivityToast {
      */
     public int getMaxProgress() {
 
+        ensureView();
+
         if(mProgressBar != null) {
 
             return mProgressBar.getMax();
@@ -1097,6 +1583,8 @@ public class XActivityToast {
      */
     public void setProgressIndeterminate(boolean isIndeterminate) {
 
+        ensureView();
+
         if (mType != XToast.Type.PROGRESS_HORIZONTAL && mType != XToast.Type.PROGRESS) {
 
             Log.e(TAG, "setProgressIndeterminate()" + ERROR_NOTEITHERPROGRESSTYPE);
@@ -1126,12 +1614,15 @@ public class XActivityToast {
     }
 
     /**
-     * Returns the {@value #TAG} message textview.
+     * Returns the {@value #TAG} message textview, null if the {@value #TAG} is a
+     * {@link FlatToastView}.
      *
      * @return {@link TextView}
      */
     public TextView getTextView() {
 
+        ensureView();
+
         return mMessageTextView;
 
     }
@@ -1143,6 +1634,8 @@ public class XActivityToast {
      */
     public View getView() {
 
+        ensureView();
+
         return mToastView;
 
     }
@@ -1181,11 +1674,13 @@ public class XActivityToast {
     }
 
     /**
-     * Returns the LinearLayout that the {@value #TAG} is attached to.
+     * Returns the root view of the {@value #TAG}, a LinearLayout or a {@link FlatToastView}.
      *
-     * @return {@link LinearLayout}
+     * @return {@link View}
      */
-    private LinearLayout getRootLayout(){
+    private View getRootLayout(){
+
+        ensureView();
 
         return mRootLayout;
 
@@ -1273,6 +1768,185 @@ public class XActivityToast {
 
     }
 
+    /**
+     * Inflates the layout of a {@value #TAG} type on a background thread and builds the
+     * {@value #TAG} with it on the main thread. Call it on the main thread ahead of showing,
+     * e.g. while a request is running. The listener is not called if the Activity is
+     * finishing by then.
+     *
+     * @param activity         {@link Activity}
+     * @param type             {@link XToast.Type}
+     * @param style            {@link .utils.Style} or null
+     * @param onCreateListener {@link OnCreateListener}
+     */
+    public static void createAsync(final Activity activity, final XToast.Type type,
+                                   final Style style, final OnCreateListener onCreateListener) {
+
+        if (activity == null) {
+
+            throw new IllegalArgumentException(TAG + ERROR_ACTIVITYNULL);
+
+        }
+
+        final int background = style != null ? style.background
+                : Style.getBackground(Style.GRAY);
+
+        AsyncToastInflater.getInstance().inflate(activity, getLayout(type),
+                (ViewGroup) activity.findViewById(android.R.id.content), background,
+                ToastTrace.ACTIVITY_INFLATE, true, new Runnable() {
+
+                    @Override
+                    public void run() {
+
+                        onCreateListener.onCreate(style != null
+                                ? new XActivityToast(activity, type, style)
+                                : new XActivityToast(activity, type));
+
+                    }
+
+                });
+
+    }
+
+    /**
+     * Inflates layouts of a {@value #TAG} type on a background thread and keeps them in the
+     * view pool, so the next SuperActivityToasts of that type do not inflate on the main
+     * thread. The views are kept until taken even if the pool is off or full, its size
+     * is left as set.
+     *
+     * @param activity {@link Activity}
+     * @param type     {@link XToast.Type}
+     * @param count    int
+     */
+    public static void prewarm(Activity activity, XToast.Type type, int count) {
+
+        if (activity == null) {
+
+            throw new IllegalArgumentException(TAG + ERROR_ACTIVITYNULL);
+
+        }
+
+        final ViewGroup viewGroup = (ViewGroup) activity.findViewById(android.R.id.content);
+
+        for (int i = 0; i < count; i++) {
+
+            AsyncToastInflater.getInstance().inflate(activity, getLayout(type), viewGroup, 0,
+                    ToastTrace.ACTIVITY_INFLATE, true, null);
+
+        }
+
+    }
+
+    private static int getLayout(XToast.Type type) {
+
+        if (type == XToast.Type.BUTTON) {
+
+            return R.layout.superactivitytoast_button;
+
+        } else if (type == XToast.Type.PROGRESS) {
+
+            return R.layout.superactivitytoast_progresscircle;
+
+        } else if (type == XToast.Type.PROGRESS_HORIZONTAL) {
+
+            return R.layout.superactivitytoast_progresshorizontal;
+
+        }
+
+        return R.layout.supertoast;
+
+    }
+
+    /**
+     * Lets a higher priority {@value #TAG} interrupt the showing one. The interrupted
+     * {@value #TAG} goes back to the front of its priority and is shown again for the time it
+     * had left. Off by default.
+     *
+     * @param preemptive boolean
+     */
+    public static void setPreemptive(boolean preemptive) {
+
+        ManagerXActivityToast.getInstance().setPreemptive(preemptive);
+
+    }
+
+    /**
+     * Returns how many SuperActivityToasts were dropped because their time to live ran out
+     * while they were queued.
+     *
+     * @return long
+     */
+    public static long getExpiredCount() {
+
+        return ManagerXActivityToast.getInstance().getExpiredCount();
+
+    }
+
+    /**
+     * Returns the lifecycle metrics of all SuperActivityToasts: event counts, queue depth,
+     * wait time and display time. Read it on the main thread.
+     *
+     * @return {@link ToastMetrics}
+     */
+    public static ToastMetrics getMetrics() {
+
+        return ManagerXActivityToast.getInstance().getMetrics();
+
+    }
+
+    /**
+     * Receives every lifecycle event of the SuperActivityToasts on the main thread.
+     * Pass null to remove the listener.
+     *
+     * @param onEventListener {@link ToastMetrics.OnEventListener}
+     */
+    public static void setOnMetricsEventListener(ToastMetrics.OnEventListener onEventListener) {
+
+        ManagerXActivityToast.getInstance().setOnMetricsEventListener(onEventListener);
+
+    }
+
+    /**
+     * Cancels a pending or showing {@value #TAG} by its handle. Main thread only.
+     *
+     * @param handle {@link ToastHandle}
+     *
+     * @return boolean false if the {@value #TAG} is not pending or showing
+     */
+    public static boolean cancel(ToastHandle handle) {
+
+        return ManagerXActivityToast.getInstance().cancel(handle);
+
+    }
+
+    /**
+     * Returns true while the {@value #TAG} of a handle is pending or showing. A {@value #TAG}
+     * that was merged into another or dropped is never queued. Main thread only.
+     *
+     * @param handle {@link ToastHandle}
+     *
+     * @return boolean
+     */
+    public static boolean isQueued(ToastHandle handle) {
+
+        return ManagerXActivityToast.getInstance().isQueued(handle);
+
+    }
+
+    /**
+     * Updates the text of a pending or showing {@value #TAG} by its handle. Main thread only.
+     *
+     * @param handle {@link ToastHandle}
+     * @param text   {@link CharSequence}
+     *
+     * @return boolean false if the {@value #TAG} is not pending or showing
+     */
+    public static boolean update(ToastHandle handle, CharSequence text) {
+
+        return ManagerXActivityToast.getInstance().update(handle, text);
+
+    }
+
     /**
      * Dismisses and removes all pending/showing {@value #TAG}.
      */
@@ -1282,6 +1956,59 @@ public class XActivityToast {
 
     }
 
+    /**
+     * Sets how many higher priority SuperActivityToasts may be shown in a row while a
+     * lower priority one is waiting. Zero shows pending SuperActivityToasts in strict
+     * priority order.
+     *
+     * @param fairness int
+     */
+    public static void setPriorityFairness(int fairness) {
+
+        ManagerXActivityToast.getInstance().setFairness(fairness);
+
+    }
+
+    /**
+     * If true a {@value #TAG} whose coalesce key matches a showing or pending one is merged
+     * into it instead of being queued again. The merged {@value #TAG} shows a counter and
+     * restarts its display time.
+     *
+     * @param coalescing boolean
+     */
+    public static void setCoalescingEnabled(boolean coalescing) {
+
+        ManagerXActivityToast.getInstance().setCoalescing(coalescing);
+
+    }
+
+    /**
+     * Limits how fast SuperActivityToasts are accepted. What happens to a {@value #TAG}
+     * over the limit is set with {@link RateLimiter#setOnLimit(RateLimiter.OnLimit)}.
+     * Pass null to remove the limit.
+     *
+     * @param rateLimiter {@link RateLimiter}
+     */
+    public static void setRateLimiter(RateLimiter rateLimiter) {
+
+        ManagerXActivityToast.getInstance().setRateLimiter(rateLimiter);
+
+    }
+
+    /**
+     * Limits how many SuperActivityToasts may wait to be shown and sets what happens when
+     * the limit is reached. Dropped SuperActivityToasts still call their OnDismissWrapper.
+     * Zero removes the limit.
+     *
+     * @param maxQueueSize   int
+     * @param overflowPolicy {@link XToast.OverflowPolicy}
+     */
+    public static void setMaxQueueSize(int maxQueueSize, XToast.OverflowPolicy overflowPolicy) {
+
+        ManagerXActivityToast.getInstance().setMaxQueueSize(maxQueueSize, overflowPolicy);
+
+    }
+
     /**
      * Dismisses and removes all pending/showing {@value #TAG}
      * for a specific activity.
@@ -1466,6 +2193,8 @@ public class XActivityToast {
         }
 
         xActivityToast.setAnimations(referenceHolder.mAnimations);
+        xActivityToast.setPriority(referenceHolder.mPriority);
+        xActivityToast.setTimeToLive(referenceHolder.mTimeToLive);
         xActivityToast.setText(referenceHolder.mText);
         xActivityToast.setTypefaceStyle(referenceHolder.mTypefaceStyle);
         xActivityToast.setDuration(referenceHolder.mDuration);
@@ -1487,6 +2216,19 @@ public class XActivityToast {
 
     }
 
+    /* Pauses the display time while the user touches the toast, then passes the event on */
+    private final PauseOnTouchListener mPauseOnTouchListener = new PauseOnTouchListener(
+            new PauseOnTouchListener.Callback() {
+
+        @Override
+        public void onTouchChanged(boolean touching) {
+
+            ManagerXActivityToast.getInstance().onTouchChanged(XActivityToast.this, touching);
+
+        }
+
+    });
+
     /* This OnTouchListener handles the setTouchToDismiss() function */
     private OnTouchListener mTouchDismissListener = new OnTouchListener() {
 
@@ -1529,7 +2271,7 @@ public class XActivityToast {
             dismiss();
 
             /* Make sure the button cannot be clicked multiple times */
-            mButton.setClickable(false);
+            view.setClickable(false);
 
         }
     };
@@ -1540,6 +2282,8 @@ public class XActivityToast {
     private static class ReferenceHolder implements Parcelable {
 
         XToast.Animations mAnimations;
+        XToast.Priority mPriority;
+        long mTimeToLive;
         boolean mIsIndeterminate;
         boolean mIsTouchDismissible;
         float mTextSize;
@@ -1587,6 +2331,8 @@ public class XActivityToast {
 
             mDismissListenerTag = xActivityToast.getOnDismissWrapperTag();
             mAnimations = xActivityToast.getAnimations();
+            mPriority = xActivityToast.getPriority();
+            mTimeToLive = xActivityToast.getTimeToLive();
             mText = xActivityToast.getText().toString();
             mTypefaceStyle = xActivityToast.getTypefaceStyle();
             mDuration = xActivityToast.getDuration();
@@ -1626,6 +2372,8 @@ public class XActivityToast {
 
             mDismissListenerTag = parcel.readString();
             mAnimations = XToast.Animations.values()[parcel.readInt()];
+            mPriority = XToast.Priority.values()[parcel.readInt()];
+            mTimeToLive = parcel.readLong();
             mText = parcel.readString();
             mTypefaceStyle = parcel.readInt();
             mDuration = parcel.readInt();
@@ -1671,6 +2419,8 @@ public class XActivityToast {
 
             parcel.writeString(mDismissListenerTag);
             parcel.writeInt(mAnimations.ordinal());
+            parcel.writeInt(mPriority.ordinal());
+            parcel.writeLong(mTimeToLive);
             parcel.writeString(mText);
             parcel.writeInt(mTypefaceStyle);
             parcel.writeInt(mDuration);
@@ -24,6 +24,7 @@ import android.app.Activity;
 import android.content.Context;
 import android.graphics.Color;
 import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
@@ -50,6 +51,7 @@ import android.widget.TextView;
 
 import com.szhynet.widget.xtoast.utils.OnClickWrapper;
 import com.szhynet.widget.xtoast.utils.OnDismissWrapper;
+import com.szhynet.widget.xtoast.utils.RateLimiter;
 import com.szhynet.widget.xtoast.utils.Style;
 import com.szhynet.widget.xtoast.utils.SwipeDismissListener;
 import com.szhynet.widget.xtoast.utils.Wrappers;
@@ -85,7 +87,6 @@ public class XCardToast {
     private boolean isProgressIndeterminate;
     private boolean showImmediate;
     private Button mButton;
-    private Handler mHandler;
     private XToast.IconPosition mIconPosition;
     private int mDuration = XToast.Duration.SHORT;
     private int mIcon;
@@ -95,18 +96,32 @@ public class XCardToast {
     private int mButtonIcon = XToast.Icon.Dark.UNDO;
     private int mDividerColor = Color.DKGRAY;
     private LayoutInflater mLayoutInflater;
-    private LinearLayout mRootLayout;
+    private View mRootLayout;
     private OnDismissWrapper mOnDismissWrapper;
     private OnClickWrapper mOnClickWrapper;
+    private final ToastHandle mHandle = new ToastHandle();
     private Parcelable mToken;
     private ProgressBar mProgressBar;
     private String mOnClickWrapperTag;
     private String mOnDismissWrapperTag;
     private TextView mMessageTextView;
+    private FlatToastView mFlatToastView;
     private XToast.Type mType = XToast.Type.STANDARD;
     private ViewGroup mViewGroup;
     private View mToastView;
     private View mDividerView;
+    private volatile boolean mRecycled;
+    private ToastViewPool.Pristine mRecycledState;
+
+    /**
+     * Receives a {@value #TAG} built with
+     * {@link #createAsync(Activity, XToast.Type, Style, OnCreateListener)}.
+     */
+    public interface OnCreateListener {
+
+        void onCreate(XCardToast xCardToast);
+
+    }
 
 
     /**
@@ -138,14 +153,16 @@ public class XCardToast {
 
         }
 
-        mToastView = mLayoutInflater
-                .inflate(R.layout.supercardtoast, mViewGroup, false);
+        mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                R.layout.supercardtoast, mViewGroup, ToastTrace.CARD_INFLATE);
 
         mMessageTextView = (TextView)
                 mToastView.findViewById(R.id.message_textview);
 
-        mRootLayout = (LinearLayout)
-                mToastView.findViewById(R.id.root_layout);
+        mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                : null;
+
+        mRootLayout = mToastView.findViewById(R.id.root_layout);
 
     }
 
@@ -179,14 +196,16 @@ public class XCardToast {
 
         }
 
-        mToastView = mLayoutInflater
-                .inflate(R.layout.supercardtoast, mViewGroup, false);
+        mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                R.layout.supercardtoast, mViewGroup, ToastTrace.CARD_INFLATE);
 
         mMessageTextView = (TextView)
                 mToastView.findViewById(R.id.message_textview);
 
-        mRootLayout = (LinearLayout)
-                mToastView.findViewById(R.id.root_layout);
+        mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                : null;
+
+        mRootLayout = mToastView.findViewById(R.id.root_layout);
 
         this.setStyle(style);
 
@@ -224,8 +243,8 @@ public class XCardToast {
 
         if (type == XToast.Type.BUTTON) {
 
-            mToastView = mLayoutInflater
-                    .inflate(R.layout.supercardtoast_button, mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.supercardtoast_button, mViewGroup, ToastTrace.CARD_INFLATE);
 
             mButton = (Button)
                     mToastView.findViewById(R.id.button);
@@ -236,32 +255,35 @@ public class XCardToast {
 
         } else if (type == XToast.Type.PROGRESS) {
 
-            mToastView = mLayoutInflater
-                    .inflate(R.layout.supercardtoast_progresscircle, mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.supercardtoast_progresscircle, mViewGroup, ToastTrace.CARD_INFLATE);
 
             mProgressBar = (ProgressBar)
                     mToastView.findViewById(R.id.progress_bar);
 
         } else if (type == XToast.Type.PROGRESS_HORIZONTAL) {
 
-            mToastView = mLayoutInflater
-                    .inflate(R.layout.supercardtoast_progresshorizontal, mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.supercardtoast_progresshorizontal, mViewGroup,
+                    ToastTrace.CARD_INFLATE);
 
             mProgressBar = (ProgressBar)
                     mToastView.findViewById(R.id.progress_bar);
 
         } else {
 
-            mToastView = mLayoutInflater
-                    .inflate(R.layout.supercardtoast, mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.supercardtoast, mViewGroup, ToastTrace.CARD_INFLATE);
 
         }
 
         mMessageTextView = (TextView)
                 mToastView.findViewById(R.id.message_textview);
 
-        mRootLayout = (LinearLayout)
-                mToastView.findViewById(R.id.root_layout);
+        mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                : null;
+
+        mRootLayout = mToastView.findViewById(R.id.root_layout);
 
     }
 
@@ -298,8 +320,8 @@ public class XCardToast {
 
         if (type == XToast.Type.BUTTON) {
 
-            mToastView = mLayoutInflater
-                    .inflate(R.layout.supercardtoast_button, mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.supercardtoast_button, mViewGroup, ToastTrace.CARD_INFLATE);
 
             mButton = (Button)
                     mToastView.findViewById(R.id.button);
@@ -310,32 +332,35 @@ public class XCardToast {
 
         } else if (type == XToast.Type.PROGRESS) {
 
-            mToastView = mLayoutInflater
-                    .inflate(R.layout.supercardtoast_progresscircle, mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.supercardtoast_progresscircle, mViewGroup, ToastTrace.CARD_INFLATE);
 
             mProgressBar = (ProgressBar)
                     mToastView.findViewById(R.id.progress_bar);
 
         } else if (type == XToast.Type.PROGRESS_HORIZONTAL) {
 
-            mToastView = mLayoutInflater
-                    .inflate(R.layout.supercardtoast_progresshorizontal, mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.supercardtoast_progresshorizontal, mViewGroup,
+                    ToastTrace.CARD_INFLATE);
 
             mProgressBar = (ProgressBar)
                     mToastView.findViewById(R.id.progress_bar);
 
         } else {
 
-            mToastView = mLayoutInflater
-                    .inflate(R.layout.supercardtoast, mViewGroup, false);
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    R.layout.supercardtoast, mViewGroup, ToastTrace.CARD_INFLATE);
 
         }
 
         mMessageTextView = (TextView)
                 mToastView.findViewById(R.id.message_textview);
 
-        mRootLayout = (LinearLayout)
-                mToastView.findViewById(R.id.root_layout);
+        mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                : null;
+
+        mRootLayout = mToastView.findViewById(R.id.root_layout);
 
         this.setStyle(style);
 
@@ -347,19 +372,41 @@ public class XCardToast {
      */
     public void show() {
 
-        ManagerXCardToast.getInstance().add(this);
+        ensureView();
+
+        if (!ManagerXCardToast.getInstance().add(this)) {
+
+            /* Rejected by the rate limiter or already showing */
+            return;
+
+        }
 
         if (!mIsIndeterminate) {
 
-            mHandler = new Handler();
-            mHandler.postDelayed(mHideRunnable, mDuration);
+            ManagerXCardToast.getInstance().startTimer(this, mDuration);
 
         }
 
-        mViewGroup.addView(mToastView);
+        /* Touching a dismissible toast pauses its display time, others let taps through */
+        mToastView.setOnTouchListener(mPauseOnTouchListener.hasDelegate()
+                ? mPauseOnTouchListener : null);
+
+        ToastTrace.begin(ToastTrace.CARD_ADD_VIEW);
+
+        try {
+
+            mViewGroup.addView(mToastView);
+
+        } finally {
+
+            ToastTrace.end();
+
+        }
 
         if (!showImmediate) {
 
+            ToastTrace.begin(ToastTrace.CARD_SHOW_ANIMATION);
+
             final Animation animation = this.getShowAnimation();
 
             /* Invalidate the ViewGroup after the show animation completes **/
@@ -392,6 +439,11 @@ public class XCardToast {
 
             mToastView.startAnimation(animation);
 
+            ToastTrace.end();
+
+            JankMonitor.getInstance().track(JankMonitor.Kind.XCARDTOAST, mType, mAnimations,
+                    JankMonitor.Phase.SHOW, animation.getDuration());
+
         }
 
     }
@@ -414,7 +466,17 @@ public class XCardToast {
      */
     public void setText(CharSequence text) {
 
-        mMessageTextView.setText(text);
+        ensureView();
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setText(text);
+
+        } else {
+
+            mMessageTextView.setText(text);
+
+        }
 
     }
 
@@ -425,7 +487,10 @@ public class XCardToast {
      */
     public CharSequence getText() {
 
-        return mMessageTextView.getText();
+        ensureView();
+
+        return mFlatToastView != null ? mFlatToastView.getText()
+                : mMessageTextView.getText();
 
     }
 
@@ -436,9 +501,19 @@ public class XCardToast {
      */
     public void setTypefaceStyle(int typeface) {
 
+        ensureView();
+
         mTypeface = typeface;
 
-        mMessageTextView.setTypeface(mMessageTextView.getTypeface(), typeface);
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setTypeface(mFlatToastView.getTypeface(), typeface);
+
+        } else {
+
+            mMessageTextView.setTypeface(mMessageTextView.getTypeface(), typeface);
+
+        }
 
     }
 
@@ -460,7 +535,17 @@ public class XCardToast {
      */
     public void setTextColor(int textColor) {
 
-        mMessageTextView.setTextColor(textColor);
+        ensureView();
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setTextColor(textColor);
+
+        } else {
+
+            mMessageTextView.setTextColor(textColor);
+
+        }
 
     }
 
@@ -471,7 +556,10 @@ public class XCardToast {
      */
     public int getTextColor() {
 
-        return mMessageTextView.getCurrentTextColor();
+        ensureView();
+
+        return mFlatToastView != null ? mFlatToastView.getCurrentTextColor()
+                : mMessageTextView.getCurrentTextColor();
 
     }
 
@@ -482,7 +570,17 @@ public class XCardToast {
      */
     public void setTextSize(int textSize) {
 
-        mMessageTextView.setTextSize(textSize);
+        ensureView();
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setTextSize(textSize);
+
+        } else {
+
+            mMessageTextView.setTextSize(textSize);
+
+        }
 
     }
 
@@ -491,7 +589,17 @@ public class XCardToast {
      */
     private void setTextSizeFloat(float textSize) {
 
-        mMessageTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSize);
+        ensureView();
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSize);
+
+        } else {
+
+            mMessageTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSize);
+
+        }
 
     }
 
@@ -502,7 +610,10 @@ public class XCardToast {
      */
     public float getTextSize() {
 
-        return mMessageTextView.getTextSize();
+        ensureView();
+
+        return mFlatToastView != null ? mFlatToastView.getTextSize()
+                : mMessageTextView.getTextSize();
 
     }
 
@@ -558,27 +669,29 @@ public class XCardToast {
      */
     public void setIcon(int icon, XToast.IconPosition iconPosition) {
 
+        ensureView();
+
         this.mIcon = icon;
         this.mIconPosition = iconPosition;
 
         if (iconPosition == XToast.IconPosition.BOTTOM) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null, null,
+            setCompoundDrawables(null, null,
                     null, mActivity.getResources().getDrawable(icon));
 
         } else if (iconPosition == XToast.IconPosition.LEFT) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(mActivity.getResources()
+            setCompoundDrawables(mActivity.getResources()
                     .getDrawable(icon), null, null, null);
 
         } else if (iconPosition == XToast.IconPosition.RIGHT) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null, null,
+            setCompoundDrawables(null, null,
                     mActivity.getResources().getDrawable(icon), null);
 
         } else if (iconPosition == XToast.IconPosition.TOP) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null,
+            setCompoundDrawables(null,
                     mActivity.getResources().getDrawable(icon), null, null);
 
         }
@@ -607,6 +720,24 @@ public class XCardToast {
 
     }
 
+    /**
+     * Private method used to set the icons on the flat view or the message textview.
+     */
+    private void setCompoundDrawables(Drawable left, Drawable top, Drawable right,
+                                      Drawable bottom) {
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setCompoundDrawablesWithIntrinsicBounds(left, top, right, bottom);
+
+        } else {
+
+            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(left, top, right, bottom);
+
+        }
+
+    }
+
     /**
      * Sets the background resource of the {@value #TAG}. The KitKat style backgrounds
      * included with this library are NOT compatible with {@value #TAG}.
@@ -615,6 +746,8 @@ public class XCardToast {
      */
     public void setBackground(int background) {
 
+        ensureView();
+
         this.mBackground = checkForKitKatBackgrounds(background);
 
         mRootLayout.setBackgroundResource(mBackground);
@@ -731,15 +864,7 @@ public class XCardToast {
 
         this.mIsTouchDismissible = touchDismiss;
 
-        if (touchDismiss) {
-
-            mToastView.setOnTouchListener(mTouchDismissListener);
-
-        } else {
-
-            mToastView.setOnTouchListener(null);
-
-        }
+        mPauseOnTouchListener.setDelegate(touchDismiss ? mTouchDismissListener : null);
 
     }
 
@@ -761,6 +886,8 @@ public class XCardToast {
      */
     public void setSwipeToDismiss(boolean swipeDismiss) {
 
+        ensureView();
+
         this.mIsSwipeDismissible = swipeDismiss;
 
         if (swipeDismiss) {
@@ -779,7 +906,7 @@ public class XCardToast {
 
                 });
 
-                mToastView.setOnTouchListener(swipeDismissListener);
+                mPauseOnTouchListener.setDelegate(swipeDismissListener);
 
             } else {
 
@@ -789,7 +916,7 @@ public class XCardToast {
 
         } else {
 
-            mToastView.setOnTouchListener(null);
+            mPauseOnTouchListener.setDelegate(null);
 
         }
 
@@ -819,6 +946,16 @@ public class XCardToast {
 
     }
 
+    /**
+     * Used in {@value #MANAGER_TAG} to identify this {@value #TAG} in its metrics.
+     * @return ToastHandle
+     */
+    ToastHandle getHandle() {
+
+        return mHandle;
+
+    }
+
     /**
      * Used in {@value #MANAGER_TAG}.
      * @return OnDismissWrapper
@@ -856,25 +993,21 @@ public class XCardToast {
 
         ManagerXCardToast.getInstance().remove(this);
 
-        if (mHandler != null) {
-
-            mHandler.removeCallbacks(mHideRunnable);
-            mHandler.removeCallbacks(mHideWithAnimationRunnable);
-            mHandler = null;
-
-        }
-
         if (mToastView != null && mViewGroup != null) {
 
+            ToastTrace.begin(ToastTrace.CARD_REMOVE_VIEW);
+
             mViewGroup.removeView(mToastView);
 
+            ToastTrace.end();
+
             if (mOnDismissWrapper != null) {
 
                 mOnDismissWrapper.onDismiss(getView());
 
             }
 
-            mToastView = null;
+            recycleView();
 
         } else {
 
@@ -884,6 +1017,106 @@ public class XCardToast {
 
     }
 
+    /**
+     * Hands the view to the view pool once dismissed. A view the pool does not take stays
+     * with the {@value #TAG}.
+     */
+    private synchronized void recycleView() {
+
+        final ToastViewPool.Pristine state = ToastViewPool.getInstance().recycle(mToastView);
+
+        if (state == null) {
+
+            return;
+
+        }
+
+        /* The view belongs to the pool now, later setters must not reach it */
+        mRecycledState = state;
+
+        mButton = null;
+
+        mDividerView = null;
+
+        mProgressBar = null;
+
+        mMessageTextView = null;
+
+        mFlatToastView = null;
+
+        mRootLayout = null;
+
+        mToastView = null;
+
+        mRecycled = true;
+
+    }
+
+    /**
+     * Obtains a new view from the view pool if the old one was recycled and restores
+     * the state the {@value #TAG} left it in.
+     */
+    private void ensureView() {
+
+        if (!mRecycled) {
+
+            return;
+
+        }
+
+        synchronized (this) {
+
+            if (!mRecycled) {
+
+                return;
+
+            }
+
+            mToastView = ToastViewPool.getInstance().obtain(mLayoutInflater,
+                    getLayout(mType), mViewGroup, ToastTrace.CARD_INFLATE);
+
+            mRecycledState.apply(mToastView);
+
+            if (mType == XToast.Type.BUTTON) {
+
+                mButton = (Button)
+                        mToastView.findViewById(R.id.button);
+
+                mDividerView = mToastView.findViewById(R.id.divider);
+
+                mButton.setOnClickListener(mButtonListener);
+
+            } else if (mType == XToast.Type.PROGRESS
+                    || mType == XToast.Type.PROGRESS_HORIZONTAL) {
+
+                mProgressBar = (ProgressBar)
+                        mToastView.findViewById(R.id.progress_bar);
+
+            }
+
+            mMessageTextView = (TextView)
+                    mToastView.findViewById(R.id.message_textview);
+
+            mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                    : null;
+
+            mRootLayout = mToastView.findViewById(R.id.root_layout);
+
+            mRecycledState = null;
+
+            mRecycled = false;
+
+            /* The swipe listener tracks the old view */
+            if (mIsSwipeDismissible) {
+
+                setSwipeToDismiss(true);
+
+            }
+
+        }
+
+    }
+
     /**
      * Hide the XCardToast and animate the Layout. Post Honeycomb only. *
      */
@@ -892,6 +1125,8 @@ public class XCardToast {
 
         if (mToastView != null) {
 
+            ToastTrace.begin(ToastTrace.CARD_DISMISS_ANIMATION);
+
             mToastView.setVisibility(View.INVISIBLE);
 
             final ViewGroup.LayoutParams layoutParams = mToastView.getLayoutParams();
@@ -940,6 +1175,11 @@ public class XCardToast {
 
             animator.start();
 
+            ToastTrace.end();
+
+            JankMonitor.getInstance().track(JankMonitor.Kind.XCARDTOAST, mType, mAnimations,
+                    JankMonitor.Phase.COLLAPSE, animator.getDuration());
+
         } else {
 
             dismissImmediately();
@@ -952,6 +1192,8 @@ public class XCardToast {
     @SuppressWarnings("deprecation")
     private void dismissWithAnimation() {
 
+        ToastTrace.begin(ToastTrace.CARD_DISMISS_ANIMATION);
+
         Animation animation = this.getDismissAnimation();
 
         animation.setAnimationListener(new Animation.AnimationListener() {
@@ -995,8 +1237,13 @@ public class XCardToast {
 
             mToastView.startAnimation(animation);
 
+            JankMonitor.getInstance().track(JankMonitor.Kind.XCARDTOAST, mType, mAnimations,
+                    JankMonitor.Phase.DISMISS, animation.getDuration());
+
         }
 
+        ToastTrace.end();
+
     }
 
     /**
@@ -1067,6 +1314,8 @@ public class XCardToast {
      */
     public void setButtonIcon(int buttonIcon) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.w(TAG, "setButtonIcon()" + ERROR_NOTBUTTONTYPE);
@@ -1093,6 +1342,8 @@ public class XCardToast {
      */
     public void setButtonIcon(int buttonIcon, CharSequence buttonText) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.w(TAG, "setButtonIcon()" + ERROR_NOTBUTTONTYPE);
@@ -1132,6 +1383,8 @@ public class XCardToast {
      */
     public void setDividerColor(int dividerColor) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.w(TAG, "setDivider()" + ERROR_NOTBUTTONTYPE);
@@ -1168,6 +1421,8 @@ public class XCardToast {
      */
     public void setButtonText(CharSequence buttonText) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.w(TAG, "setButtonText()" + ERROR_NOTBUTTONTYPE);
@@ -1190,6 +1445,8 @@ public class XCardToast {
      */
     public CharSequence getButtonText() {
 
+        ensureView();
+
         if(mButton != null) {
 
             return mButton.getText();
@@ -1212,6 +1469,8 @@ public class XCardToast {
      */
     public void setButtonTypefaceStyle(int typefaceStyle) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.w(TAG, "setButtonTypefaceStyle()" + ERROR_NOTBUTTONTYPE);
@@ -1248,6 +1507,8 @@ public class XCardToast {
      */
     public void setButtonTextColor(int buttonTextColor) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.w(TAG, "setButtonTextColor()" + ERROR_NOTBUTTONTYPE);
@@ -1270,6 +1531,8 @@ public class XCardToast {
      */
     public int getButtonTextColor() {
 
+        ensureView();
+
         if(mButton != null) {
 
             return mButton.getCurrentTextColor();
@@ -1292,6 +1555,8 @@ public class XCardToast {
      */
     public void setButtonTextSize(int buttonTextSize) {
 
+        ensureView();
+
         if (mType != XToast.Type.BUTTON) {
 
             Log.w(TAG, "setButtonTextSize()" + ERROR_NOTBUTTONTYPE);
@@ -1311,6 +1576,8 @@ public class XCardToast {
      */
     private void setButtonTextSizeFloat(float buttonTextSize) {
 
+        ensureView();
+
         mButton.setTextSize(TypedValue.COMPLEX_UNIT_PX, buttonTextSize);
 
     }
@@ -1323,6 +1590,8 @@ public class XCardToast {
      */
     public float getButtonTextSize() {
 
+        ensureView();
+
         if(mButton != null){
 
             return mButton.getTextSize();
@@ -1345,6 +1614,8 @@ public class XCardToast {
      */
     public void setProgress(int progress) {
 
+        ensureView();
+
         if (mType != XToast.Type.PROGRESS_HORIZONTAL) {
 
             Log.w(TAG, "setProgress()" + ERROR_NOTPROGRESSHORIZONTALTYPE);
@@ -1367,6 +1638,8 @@ public class XCardToast {
      */
     public int getProgress() {
 
+        ensureView();
+
         if(mProgressBar != null) {
 
             return mProgressBar.getProgress();
@@ -1389,6 +1662,8 @@ public class XCardToast {
      */
     public void setMaxProgress(int maxProgress) {
 
+        ensureView();
+
         if (mType != XToast.Type.PROGRESS_HORIZONTAL) {
 
             Log.e(TAG, "setMaxProgress()" + ERROR_NOTPROGRESSHORIZONTALTYPE);
@@ -1411,6 +1686,8 @@ public class XCardToast {
      */
     public int getMaxProgress() {
 
+        ensureView();
+
         if(mProgressBar != null){
 
             return mProgressBar.getMax();
@@ -1433,6 +1710,8 @@ public class XCardToast {
      */
     public void setProgressIndeterminate(boolean isIndeterminate) {
 
+        ensureView();
+
         if (mType != XToast.Type.PROGRESS_HORIZONTAL) {
 
             Log.e(TAG, "setProgressIndeterminate()" + ERROR_NOTPROGRESSHORIZONTALTYPE);
@@ -1462,12 +1741,15 @@ public class XCardToast {
     }
 
     /**
-     * Returns the {@value #TAG} message textview.
+     * Returns the {@value #TAG} message textview, null if the {@value #TAG} is a
+     * {@link FlatToastView}.
      *
      * @return {@link TextView}
      */
     public TextView getTextView() {
 
+        ensureView();
+
         return mMessageTextView;
 
     }
@@ -1479,6 +1761,8 @@ public class XCardToast {
      */
     public View getView() {
 
+        ensureView();
+
         return mToastView;
 
     }
@@ -1535,20 +1819,6 @@ public class XCardToast {
 
     }
 
-    /**
-     * Runnable to dismiss the {@value #TAG} with animation.
-     */
-    private final Runnable mHideRunnable = new Runnable() {
-
-        @Override
-        public void run() {
-
-            dismiss();
-
-        }
-
-    };
-
     /**
      * Runnable to dismiss the {@value #TAG} without animation.
      */
@@ -1802,6 +2072,139 @@ public class XCardToast {
 
     }
 
+    /**
+     * Limits how fast SuperCardToasts are shown. SuperCardToasts over the limit are
+     * dropped and their OnDismissWrapper is called. Pass null to remove the limit.
+     *
+     * @param rateLimiter {@link RateLimiter}
+     */
+    public static void setRateLimiter(RateLimiter rateLimiter) {
+
+        ManagerXCardToast.getInstance().setRateLimiter(rateLimiter);
+
+    }
+
+    /**
+     * Inflates the layout of a {@value #TAG} type on a background thread and builds the
+     * {@value #TAG} with it on the main thread. Call it on the main thread ahead of showing,
+     * e.g. while a request is running. The listener is not called if the Activity is
+     * finishing by then. Your layout must have a LinearLayout with the id card_container.
+     *
+     * @param activity         {@link Activity}
+     * @param type             {@link XToast.Type}
+     * @param style            {@link .utils.Style} or null
+     * @param onCreateListener {@link OnCreateListener}
+     */
+    public static void createAsync(final Activity activity, final XToast.Type type,
+                                   final Style style, final OnCreateListener onCreateListener) {
+
+        final int background = style != null ? style.background
+                : Style.getBackground(Style.GRAY);
+
+        AsyncToastInflater.getInstance().inflate(activity, getLayout(type),
+                getContainer(activity), background, ToastTrace.CARD_INFLATE, true,
+                new Runnable() {
+
+                    @Override
+                    public void run() {
+
+                        onCreateListener.onCreate(style != null
+                                ? new XCardToast(activity, type, style)
+                                : new XCardToast(activity, type));
+
+                    }
+
+                });
+
+    }
+
+    /**
+     * Inflates layouts of a {@value #TAG} type on a background thread and keeps them in the
+     * view pool, so the next SuperCardToasts of that type do not inflate on the main
+     * thread. The views are kept until taken even if the pool is off or full, its size
+     * is left as set. Your layout must have a LinearLayout with the id card_container.
+     *
+     * @param activity {@link Activity}
+     * @param type     {@link XToast.Type}
+     * @param count    int
+     */
+    public static void prewarm(Activity activity, XToast.Type type, int count) {
+
+        final ViewGroup viewGroup = getContainer(activity);
+
+        for (int i = 0; i < count; i++) {
+
+            AsyncToastInflater.getInstance().inflate(activity, getLayout(type), viewGroup, 0,
+                    ToastTrace.CARD_INFLATE, true, null);
+
+        }
+
+    }
+
+    private static ViewGroup getContainer(Activity activity) {
+
+        if (activity == null) {
+
+            throw new IllegalArgumentException(TAG + ERROR_ACTIVITYNULL);
+
+        }
+
+        final ViewGroup viewGroup = (ViewGroup) activity.findViewById(R.id.card_container);
+
+        if (viewGroup == null) {
+
+            throw new IllegalArgumentException(TAG + ERROR_CONTAINERNULL);
+
+        }
+
+        return viewGroup;
+
+    }
+
+    private static int getLayout(XToast.Type type) {
+
+        if (type == XToast.Type.BUTTON) {
+
+            return R.layout.supercardtoast_button;
+
+        } else if (type == XToast.Type.PROGRESS) {
+
+            return R.layout.supercardtoast_progresscircle;
+
+        } else if (type == XToast.Type.PROGRESS_HORIZONTAL) {
+
+            return R.layout.supercardtoast_progresshorizontal;
+
+        }
+
+        return R.layout.supercardtoast;
+
+    }
+
+    /**
+     * Returns the lifecycle metrics of all SuperCardToasts: event counts, wait time and
+     * display time. Read it on the main thread.
+     *
+     * @return {@link ToastMetrics}
+     */
+    public static ToastMetrics getMetrics() {
+
+        return ManagerXCardToast.getInstance().getMetrics();
+
+    }
+
+    /**
+     * Receives every lifecycle event of the SuperCardToasts on the main thread.
+     * Pass null to remove the listener.
+     *
+     * @param onEventListener {@link ToastMetrics.OnEventListener}
+     */
+    public static void setOnMetricsEventListener(ToastMetrics.OnEventListener onEventListener) {
+
+        ManagerXCardToast.getInstance().setOnMetricsEventListener(onEventListener);
+
+    }
+
     /**
      * Saves pending/shown SuperCardToasts to a bundle.
      *
@@ -1978,6 +2381,19 @@ public class XCardToast {
 
     }
 
+    /* Pauses the display time while the user touches the toast, then passes the event on */
+    private final PauseOnTouchListener mPauseOnTouchListener = new PauseOnTouchListener(
+            new PauseOnTouchListener.Callback() {
+
+        @Override
+        public void onTouchChanged(boolean touching) {
+
+            ManagerXCardToast.getInstance().onTouchChanged(XCardToast.this, touching);
+
+        }
+
+    });
+
     /* This OnTouchListener handles the setTouchToDismiss() function */
     private OnTouchListener mTouchDismissListener = new OnTouchListener() {
 
@@ -2020,7 +2436,7 @@ public class XCardToast {
             dismiss();
 
             /* Make sure the button cannot be clicked multiple times */
-            mButton.setClickable(false);
+            view.setClickable(false);
 
         }
     };
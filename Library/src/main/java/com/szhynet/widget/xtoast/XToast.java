@@ -22,14 +22,15 @@ import android.graphics.PixelFormat;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.WindowManager;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 
+import com.szhynet.widget.xtoast.utils.RateLimiter;
 import com.szhynet.widget.xtoast.utils.Style;
 
 /**
@@ -233,20 +234,94 @@ public class XToast {
 
     }
 
+    /**
+     * XToast的显示优先级,优先级高的XToast会先于排队中的低优先级XToast显示
+     */
+    public enum Priority {
+
+        /**
+         * 低优先级,适用于可有可无的提示
+         */
+        LOW,
+
+        /**
+         * 普通优先级,默认值
+         */
+        NORMAL,
+
+        /**
+         * 高优先级
+         */
+        HIGH,
+
+        /**
+         * 紧急,适用于必须尽快让用户看到的消息
+         */
+        URGENT
+
+    }
+
+    /**
+     * XToast排队数量达到上限时的处理方式
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * 丢弃优先级最低的队列中最早排队的XToast,如果新的XToast优先级更低则丢弃新的
+         */
+        DROP_OLDEST(ToastScheduler.OverflowPolicy.DROP_OLDEST),
+
+        /**
+         * 丢弃新的XToast
+         */
+        DROP_NEWEST(ToastScheduler.OverflowPolicy.DROP_NEWEST),
+
+        /**
+         * 用新的XToast替换合并键相同的排队中的XToast,没有相同的则丢弃新的
+         */
+        REPLACE_SAME_KEY(ToastScheduler.OverflowPolicy.REPLACE_SAME_KEY),
+
+        /**
+         * 不再排队,在最后排队的XToast上显示被合并的数量
+         */
+        COLLAPSE(ToastScheduler.OverflowPolicy.COLLAPSE);
+
+        /* 调度核心中对应的处理方式 */
+        final ToastScheduler.OverflowPolicy mSchedulerPolicy;
+
+        OverflowPolicy(ToastScheduler.OverflowPolicy schedulerPolicy) {
+
+            this.mSchedulerPolicy = schedulerPolicy;
+
+        }
+
+    }
+
     private Animations mAnimations = Animations.FADE;
+    private Priority mPriority = Priority.NORMAL;
+    private final ToastHandle mHandle = new ToastHandle();
+    private CharSequence mCoalescedText;
     private Context mContext;
     private int mGravity = Gravity.BOTTOM | Gravity.CENTER;
     private int mDuration = Duration.SHORT;
+    private long mTimeToLive;
+    private long mDeadline;
+    private int mCoalescedCount = 1;
+    private int mCollapsedCount;
     private int mTypefaceStyle;
     private int mBackground;
     private int mXOffset = 0;
     private int mYOffset = 0;
-    private LinearLayout mRootLayout;
+    private View mRootLayout;
     private OnDismissListener mOnDismissListener;
+    private String mCoalesceKey;
     private TextView mMessageTextView;
+    private FlatToastView mFlatToastView;
     private View mToastView;
     private WindowManager mWindowManager;
     private WindowManager.LayoutParams mWindowManagerParams;
+    private volatile boolean mRecycled;
+    private ToastViewPool.Pristine mRecycledState;
 
     /**
      * 构造XToast, new {@value #TAG}.
@@ -268,17 +343,20 @@ public class XToast {
         final LayoutInflater layoutInflater = (LayoutInflater) context
                 .getSystemService(Context.LAYOUT_INFLATER_SERVICE);
 
-        mToastView = layoutInflater.inflate(R.layout.supertoast, null);
+        mToastView = ToastViewPool.getInstance().obtain(layoutInflater,
+                R.layout.supertoast, null, ToastTrace.XTOAST_INFLATE);
 
         mWindowManager = (WindowManager) mToastView.getContext()
                 .getApplicationContext().getSystemService(Context.WINDOW_SERVICE);
 
-        mRootLayout = (LinearLayout)
-                mToastView.findViewById(R.id.root_layout);
+        mRootLayout = mToastView.findViewById(R.id.root_layout);
 
         mMessageTextView = (TextView)
                 mToastView.findViewById(R.id.message_textview);
 
+        mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                : null;
+
     }
 
     /**
@@ -303,41 +381,116 @@ public class XToast {
         final LayoutInflater layoutInflater = (LayoutInflater) context
                 .getSystemService(Context.LAYOUT_INFLATER_SERVICE);
 
-        mToastView = layoutInflater.inflate(R.layout.supertoast, null);
+        mToastView = ToastViewPool.getInstance().obtain(layoutInflater,
+                R.layout.supertoast, null, ToastTrace.XTOAST_INFLATE);
 
         mWindowManager = (WindowManager) mToastView.getContext()
                 .getApplicationContext().getSystemService(Context.WINDOW_SERVICE);
 
-        mRootLayout = (LinearLayout)
-                mToastView.findViewById(R.id.root_layout);
+        mRootLayout = mToastView.findViewById(R.id.root_layout);
 
         mMessageTextView = (TextView)
                 mToastView.findViewById(R.id.message_textview);
 
+        mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                : null;
+
         this.setStyle(style);
 
     }
 
     /**
-     * 显示XToast
+     * 显示XToast,可以在任意线程调用,XToast会在主线程中排队显示
+     *
+     * @return {@link ToastHandle} 用于取消,查询或更新这个XToast
      */
-    public void show() {
+    public ToastHandle show() {
+
+        ManagerXToast.getInstance().add(this);
 
-        mWindowManagerParams = new WindowManager.LayoutParams();
+        return mHandle;
+
+    }
+
+    /**
+     * 由ManagerXToast在主线程中排队前调用,视图已被回收时重新获取视图,
+     * 设置WindowManager参数并计算显示期限
+     */
+    void prepareToShow() {
+
+        ensureView();
+
+        updateWindowManagerParams();
 
-        mWindowManagerParams.height = WindowManager.LayoutParams.WRAP_CONTENT;
-        mWindowManagerParams.width = WindowManager.LayoutParams.WRAP_CONTENT;
-        mWindowManagerParams.flags = WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
-                | WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE
-                | WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON;
-        mWindowManagerParams.format = PixelFormat.TRANSLUCENT;
-        mWindowManagerParams.windowAnimations = getAnimation();
-        mWindowManagerParams.type = WindowManager.LayoutParams.TYPE_TOAST;
-        mWindowManagerParams.gravity = mGravity;
-        mWindowManagerParams.x = mXOffset;
         mWindowManagerParams.y = mYOffset;
 
-        ManagerXToast.getInstance().add(this);
+        mDeadline = mTimeToLive > 0 ? SystemClock.uptimeMillis() + mTimeToLive : 0;
+
+    }
+
+    /**
+     * 将通过setter修改的文本,图标,样式,位置或显示时长应用到排队中或正在显示的XToast上,
+     * 不会重新排队.只有位置或动画改变时才会调用updateViewLayout,显示时长会重新计算.
+     * 需要在主线程调用
+     *
+     * @return boolean XToast不在排队或显示时返回false
+     */
+    public boolean update() {
+
+        return ManagerXToast.getInstance().refresh(this);
+
+    }
+
+    /**
+     * 根据当前设置更新WindowManager参数,Y轴位置由ManagerXToast设置.参数有变化时返回true
+     */
+    boolean updateWindowManagerParams() {
+
+        boolean changed = false;
+
+        if (mWindowManagerParams == null) {
+
+            /* Reused when the XToast is shown again */
+            mWindowManagerParams = new WindowManager.LayoutParams();
+
+            mWindowManagerParams.height = WindowManager.LayoutParams.WRAP_CONTENT;
+            mWindowManagerParams.width = WindowManager.LayoutParams.WRAP_CONTENT;
+            mWindowManagerParams.flags = WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
+                    | WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE
+                    | WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON;
+            mWindowManagerParams.format = PixelFormat.TRANSLUCENT;
+            mWindowManagerParams.type = WindowManager.LayoutParams.TYPE_TOAST;
+
+            changed = true;
+
+        }
+
+        final int animation = getAnimation();
+
+        if (mWindowManagerParams.windowAnimations != animation
+                || mWindowManagerParams.gravity != mGravity
+                || mWindowManagerParams.x != mXOffset) {
+
+            mWindowManagerParams.windowAnimations = animation;
+            mWindowManagerParams.gravity = mGravity;
+            mWindowManagerParams.x = mXOffset;
+
+            changed = true;
+
+        }
+
+        return changed;
+
+    }
+
+    /**
+     * 获取XToast的句柄
+     *
+     * @return {@link ToastHandle}
+     */
+    public ToastHandle getHandle() {
+
+        return mHandle;
 
     }
 
@@ -348,7 +501,17 @@ public class XToast {
      */
     public void setText(CharSequence text) {
 
-        mMessageTextView.setText(text);
+        ensureView();
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setText(text);
+
+        } else {
+
+            mMessageTextView.setText(text);
+
+        }
 
     }
 
@@ -359,7 +522,10 @@ public class XToast {
      */
     public CharSequence getText() {
 
-        return mMessageTextView.getText();
+        ensureView();
+
+        return mFlatToastView != null ? mFlatToastView.getText()
+                : mMessageTextView.getText();
 
     }
 
@@ -370,9 +536,19 @@ public class XToast {
      */
     public void setTypefaceStyle(int typeface) {
 
+        ensureView();
+
         mTypefaceStyle = typeface;
 
-        mMessageTextView.setTypeface(mMessageTextView.getTypeface(), typeface);
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setTypeface(mFlatToastView.getTypeface(), typeface);
+
+        } else {
+
+            mMessageTextView.setTypeface(mMessageTextView.getTypeface(), typeface);
+
+        }
 
     }
 
@@ -394,7 +570,17 @@ public class XToast {
      */
     public void setTextColor(int textColor) {
 
-        mMessageTextView.setTextColor(textColor);
+        ensureView();
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setTextColor(textColor);
+
+        } else {
+
+            mMessageTextView.setTextColor(textColor);
+
+        }
 
     }
 
@@ -405,7 +591,10 @@ public class XToast {
      */
     public int getTextColor() {
 
-        return mMessageTextView.getCurrentTextColor();
+        ensureView();
+
+        return mFlatToastView != null ? mFlatToastView.getCurrentTextColor()
+                : mMessageTextView.getCurrentTextColor();
 
     }
 
@@ -416,7 +605,17 @@ public class XToast {
      */
     public void setTextSize(int textSize) {
 
-        mMessageTextView.setTextSize(textSize);
+        ensureView();
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setTextSize(textSize);
+
+        } else {
+
+            mMessageTextView.setTextSize(textSize);
+
+        }
 
     }
 
@@ -427,7 +626,10 @@ public class XToast {
      */
     public float getTextSize() {
 
-        return mMessageTextView.getTextSize();
+        ensureView();
+
+        return mFlatToastView != null ? mFlatToastView.getTextSize()
+                : mMessageTextView.getTextSize();
 
     }
 
@@ -463,6 +665,194 @@ public class XToast {
 
     }
 
+    /**
+     * 设置排队的最长时间,从调用{@link #show()}开始计算.超时仍未显示的XToast会被丢弃并调用
+     * 其销毁监听器,为0时不限制
+     *
+     * @param timeToLive long 毫秒
+     */
+    public void setTimeToLive(long timeToLive) {
+
+        this.mTimeToLive = Math.max(0, timeToLive);
+
+    }
+
+    /**
+     * 获取排队的最长时间
+     *
+     * @return long
+     */
+    public long getTimeToLive() {
+
+        return this.mTimeToLive;
+
+    }
+
+    /**
+     * 获取超时时间点(SystemClock.uptimeMillis()),没有排队时长限制时为0
+     */
+    long getDeadline() {
+
+        return this.mDeadline;
+
+    }
+
+    /**
+     * 设置显示优先级
+     *
+     * @param priority {@link Priority}
+     */
+    public void setPriority(Priority priority) {
+
+        this.mPriority = priority;
+
+    }
+
+    /**
+     * 获取显示优先级
+     *
+     * @return {@link Priority}
+     */
+    public Priority getPriority() {
+
+        return this.mPriority;
+
+    }
+
+    /**
+     * 设置合并键,开启合并后键相同的XToast会被合并为一个.不设置时按文本和样式合并
+     *
+     * @param coalesceKey {@link String}
+     */
+    public void setCoalesceKey(String coalesceKey) {
+
+        this.mCoalesceKey = coalesceKey;
+
+    }
+
+    /**
+     * 获取合并键,未设置时返回由文本和样式生成的键
+     *
+     * @return {@link String}
+     */
+    public String getCoalesceKey() {
+
+        if (mCoalesceKey != null) {
+
+            return mCoalesceKey;
+
+        }
+
+        final CharSequence text = mCoalescedText != null ? mCoalescedText : getText();
+
+        return String.valueOf(text) + '\u0000' + mBackground + '\u0000'
+                + System.identityHashCode(mBackgroundDrawable) + '\u0000'
+                + getTextColor() + '\u0000' + mTypefaceStyle;
+
+    }
+
+    /**
+     * 获取被合并进当前XToast的次数,包括自身
+     *
+     * @return int
+     */
+    public int getCoalescedCount() {
+
+        return mCoalescedCount;
+
+    }
+
+    /**
+     * 获取队列已满时被合并进当前XToast的其他XToast数量
+     *
+     * @return int
+     */
+    public int getCollapsedCount() {
+
+        return mCollapsedCount;
+
+    }
+
+    /**
+     * 由ManagerXToast在合并重复的XToast时调用,在文本后显示计数
+     */
+    void coalesce() {
+
+        mCoalescedCount++;
+
+        updateCountText();
+
+    }
+
+    /**
+     * 由ManagerXToast在队列已满时调用,在文本后显示被合并的XToast数量
+     */
+    void collapse() {
+
+        mCollapsedCount++;
+
+        updateCountText();
+
+    }
+
+    /**
+     * 由ManagerXToast在通过句柄更新文本时调用,保留合并计数
+     */
+    void updateText(CharSequence text) {
+
+        if (mCoalescedText != null) {
+
+            mCoalescedText = text;
+
+            updateCountText();
+
+        } else {
+
+            setText(text);
+
+        }
+
+    }
+
+    /**
+     * 在原始文本后显示合并计数的私有方法
+     */
+    private void updateCountText() {
+
+        ensureView();
+
+        if (mCoalescedText == null) {
+
+            mCoalescedText = getText();
+
+        }
+
+        final StringBuilder text = new StringBuilder(mCoalescedText);
+
+        if (mCoalescedCount > 1) {
+
+            text.append(" (x").append(mCoalescedCount).append(')');
+
+        }
+
+        if (mCollapsedCount > 0) {
+
+            text.append(" (+").append(mCollapsedCount).append(')');
+
+        }
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setText(text);
+
+        } else {
+
+            mMessageTextView.setText(text);
+
+        }
+
+    }
+
     /**
      * 设置显示图标
      *
@@ -471,24 +861,26 @@ public class XToast {
      */
     public void setIcon(int iconResource, IconPosition iconPosition) {
 
+        ensureView();
+
         if (iconPosition == IconPosition.BOTTOM) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null, null,
+            setCompoundDrawables(null, null,
                     null, mContext.getResources().getDrawable(iconResource));
 
         } else if (iconPosition == IconPosition.LEFT) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(mContext.getResources()
+            setCompoundDrawables(mContext.getResources()
                     .getDrawable(iconResource), null, null, null);
 
         } else if (iconPosition == IconPosition.RIGHT) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null, null,
+            setCompoundDrawables(null, null,
                     mContext.getResources().getDrawable(iconResource), null);
 
         } else if (iconPosition == IconPosition.TOP) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null,
+            setCompoundDrawables(null,
                     mContext.getResources().getDrawable(iconResource), null, null);
 
         }
@@ -502,23 +894,25 @@ public class XToast {
      */
     public void setIcon(Bitmap icon, IconPosition iconPosition) {
 
+        ensureView();
+
         if (iconPosition == IconPosition.BOTTOM) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null, null,
+            setCompoundDrawables(null, null,
                     null, new BitmapDrawable(icon));
 
         } else if (iconPosition == IconPosition.LEFT) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(new BitmapDrawable(icon), null, null, null);
+            setCompoundDrawables(new BitmapDrawable(icon), null, null, null);
 
         } else if (iconPosition == IconPosition.RIGHT) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null, null,
+            setCompoundDrawables(null, null,
                     new BitmapDrawable(icon), null);
 
         } else if (iconPosition == IconPosition.TOP) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null,
+            setCompoundDrawables(null,
                     new BitmapDrawable(icon), null, null);
 
         }
@@ -532,35 +926,57 @@ public class XToast {
      */
     public void setIcon(Drawable icon, IconPosition iconPosition) {
 
+        ensureView();
+
         if (iconPosition == IconPosition.BOTTOM) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null, null,
+            setCompoundDrawables(null, null,
                     null, icon);
 
         } else if (iconPosition == IconPosition.LEFT) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(icon, null, null, null);
+            setCompoundDrawables(icon, null, null, null);
 
         } else if (iconPosition == IconPosition.RIGHT) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null, null,
+            setCompoundDrawables(null, null,
                     icon, null);
 
         } else if (iconPosition == IconPosition.TOP) {
 
-            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(null,
+            setCompoundDrawables(null,
                     icon, null, null);
 
         }
 
     }
 
+    /**
+     * 设置图标,显示在FlatToastView或者消息TextView上
+     */
+    private void setCompoundDrawables(Drawable left, Drawable top, Drawable right,
+                                      Drawable bottom) {
+
+        if (mFlatToastView != null) {
+
+            mFlatToastView.setCompoundDrawablesWithIntrinsicBounds(left, top, right, bottom);
+
+        } else {
+
+            mMessageTextView.setCompoundDrawablesWithIntrinsicBounds(left, top, right, bottom);
+
+        }
+
+    }
+
     /**
      * 设置显示背景
      * @param background {@link Background}
      */
     public void setBackground(int background) {
 
+        ensureView();
+
         this.mBackground = background;
 
         mRootLayout.setBackgroundResource(background);
@@ -572,6 +988,8 @@ public class XToast {
      * @param customBackground
      */
     public void setBackground(Drawable customBackground) {
+
+        ensureView();
         this.mBackgroundDrawable = customBackground;
         mRootLayout.setBackgroundDrawable(customBackground);
     }
@@ -601,6 +1019,17 @@ public class XToast {
 
     }
 
+    /**
+     * 获取Y轴偏移量,堆叠显示时XToast会在此基础上错开
+     *
+     * @return int
+     */
+    public int getYOffset() {
+
+        return this.mYOffset;
+
+    }
+
     /**
      * 设置显示/隐藏动画
      *
@@ -655,12 +1084,14 @@ public class XToast {
     }
 
     /**
-     * 获取XToast内部的显示消息的TextView
+     * 获取XToast内部的显示消息的TextView,视图为FlatToastView时返回null
      *
      * @return {@link TextView}
      */
     public TextView getTextView() {
 
+        ensureView();
+
         return mMessageTextView;
 
     }
@@ -672,6 +1103,8 @@ public class XToast {
      */
     public View getView() {
 
+        ensureView();
+
         return mToastView;
 
     }
@@ -687,6 +1120,77 @@ public class XToast {
 
     }
 
+    /**
+     * 被ManagerXToast调用,XToast消失后将视图交给视图池
+     */
+    protected synchronized void recycleView() {
+
+        final ToastViewPool.Pristine state = ToastViewPool.getInstance().recycle(mToastView);
+
+        if (state == null) {
+
+            return;
+
+        }
+
+        /* 视图已属于视图池,之后的设置不能再作用在它上面 */
+        mRecycledState = state;
+
+        mRootLayout = null;
+
+        mMessageTextView = null;
+
+        mFlatToastView = null;
+
+        mToastView = null;
+
+        mRecycled = true;
+
+    }
+
+    /**
+     * 视图已被回收时,从视图池重新获取一个视图并恢复回收前的状态
+     */
+    private void ensureView() {
+
+        if (!mRecycled) {
+
+            return;
+
+        }
+
+        synchronized (this) {
+
+            if (!mRecycled) {
+
+                return;
+
+            }
+
+            final LayoutInflater layoutInflater = (LayoutInflater) mContext
+                    .getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+
+            mToastView = ToastViewPool.getInstance().obtain(layoutInflater,
+                    R.layout.supertoast, null, ToastTrace.XTOAST_INFLATE);
+
+            mRecycledState.apply(mToastView);
+
+            mRootLayout = mToastView.findViewById(R.id.root_layout);
+
+            mMessageTextView = (TextView)
+                    mToastView.findViewById(R.id.message_textview);
+
+            mFlatToastView = mToastView instanceof FlatToastView ? (FlatToastView) mToastView
+                    : null;
+
+            mRecycledState = null;
+
+            mRecycled = false;
+
+        }
+
+    }
+
     /**
      * 获取当前XToast的WindowManager对象
      *
@@ -735,9 +1239,11 @@ public class XToast {
     }
 
     /**
-     * 设置默认的Style的私有方法
+     * 设置Style,对正在显示的XToast调用{@link #update()}使其生效
+     *
+     * @param style {@link Style}
      */
-    private void setStyle(Style style) {
+    public void setStyle(Style style) {
 
         this.setAnimations(style.animations);
         this.setTypefaceStyle(style.typefaceStyle);
@@ -812,6 +1318,216 @@ public class XToast {
 
     }
 
+    /**
+     * 设置排队时的公平性:低优先级XToast等待时,最多允许连续显示多少个高优先级XToast,
+     * 为0时严格按优先级显示
+     *
+     * @param fairness int
+     */
+    public static void setPriorityFairness(int fairness) {
+
+        ManagerXToast.getInstance().setFairness(fairness);
+
+    }
+
+    /**
+     * 设置是否合并重复的XToast.开启后,合并键相同的XToast不再重复排队,
+     * 而是合并到正在排队或正在显示的那个XToast上,显示计数并重新计时
+     *
+     * @param coalescing boolean
+     */
+    public static void setCoalescingEnabled(boolean coalescing) {
+
+        ManagerXToast.getInstance().setCoalescing(coalescing);
+
+    }
+
+    /**
+     * 设置限流器,限制XToast被接受的速度,超出限制的XToast按
+     * {@link RateLimiter#setOnLimit(RateLimiter.OnLimit)}的设置丢弃或合并.传入null取消限流
+     *
+     * @param rateLimiter {@link RateLimiter}
+     */
+    public static void setRateLimiter(RateLimiter rateLimiter) {
+
+        ManagerXToast.getInstance().setRateLimiter(rateLimiter);
+
+    }
+
+    /**
+     * 设置排队XToast的数量上限及达到上限时的处理方式,为0时不限制.
+     * 被丢弃的XToast会调用其销毁监听器
+     *
+     * @param maxQueueSize   int
+     * @param overflowPolicy {@link OverflowPolicy}
+     */
+    public static void setMaxQueueSize(int maxQueueSize, OverflowPolicy overflowPolicy) {
+
+        ManagerXToast.getInstance().setMaxQueueSize(maxQueueSize, overflowPolicy);
+
+    }
+
+    /**
+     * 获取排队超时而被丢弃的XToast数量
+     *
+     * @return long
+     */
+    public static long getExpiredCount() {
+
+        return ManagerXToast.getInstance().getExpiredCount();
+
+    }
+
+    /**
+     * 获取所有XToast的生命周期统计:各事件的次数,排队长度,排队等待时间和显示时间,
+     * 需要在主线程读取
+     *
+     * @return {@link ToastMetrics}
+     */
+    public static ToastMetrics getMetrics() {
+
+        return ManagerXToast.getInstance().getMetrics();
+
+    }
+
+    /**
+     * 设置XToast生命周期事件的监听器,在主线程回调,传入null取消监听
+     *
+     * @param onEventListener {@link ToastMetrics.OnEventListener}
+     */
+    public static void setOnMetricsEventListener(ToastMetrics.OnEventListener onEventListener) {
+
+        ManagerXToast.getInstance().setOnMetricsEventListener(onEventListener);
+
+    }
+
+    /**
+     * 设置跟踪器,在布局加载,添加视图,显示和消失动画以及移除视图时开始和结束跟踪区段.
+     * 对XToast,XActivityToast和XCardToast都有效,使用{@link SystemToastTracer}可以在系统跟踪中看到这些区段,
+     * 传入null取消跟踪
+     *
+     * @param tracer {@link ToastTracer}
+     */
+    public static void setTracer(ToastTracer tracer) {
+
+        ToastTrace.setTracer(tracer);
+
+    }
+
+    /**
+     * 获取掉帧检测器,开启后统计XToast,XActivityToast和XCardToast的动画运行时超出帧预算的帧数,
+     * 按XToast类型,动画和阶段分别计数.默认关闭
+     *
+     * @return {@link JankMonitor}
+     */
+    public static JankMonitor getJankMonitor() {
+
+        return JankMonitor.getInstance();
+
+    }
+
+    /**
+     * 获取视图池.设置大小后,消失的XToast,XActivityToast和XCardToast的视图会被重置并
+     * 交给下一个相同布局的XToast使用,不再重新加载布局.默认关闭
+     *
+     * @return {@link ToastViewPool}
+     */
+    public static ToastViewPool getViewPool() {
+
+        return ToastViewPool.getInstance();
+
+    }
+
+    /**
+     * 获取视图工厂.对某个类型开启后,XToast,XActivityToast和XCardToast用代码创建该类型的视图,
+     * 不再解析XML布局.默认关闭
+     *
+     * @return {@link ToastViewFactory}
+     */
+    public static ToastViewFactory getViewFactory() {
+
+        return ToastViewFactory.getInstance();
+
+    }
+
+    /**
+     * 获取文本布局缓存.FlatToastView显示过的文本会从缓存中取出排好的布局,不再重新测量.
+     * 可以查看命中率,内存不足时自动清理
+     *
+     * @return {@link TextLayoutCache}
+     */
+    public static TextLayoutCache getTextLayoutCache() {
+
+        return TextLayoutCache.getInstance();
+
+    }
+
+    /**
+     * 设置同时显示的XToast数量,默认为1.大于1时相同位置的XToast会依次错开堆叠显示,
+     * 有XToast消失时其余的XToast会重新排列
+     *
+     * @param stackSize int
+     */
+    public static void setStackSize(int stackSize) {
+
+        ManagerXToast.getInstance().setStackSize(stackSize);
+
+    }
+
+    /**
+     * 设置是否共用一个悬浮窗口显示所有的XToast.开启后XToast只在这个窗口中替换内容,
+     * 不再为每个XToast添加和移除窗口,窗口在空闲idleTimeout毫秒后移除
+     *
+     * @param sharedWindow boolean
+     * @param idleTimeout  long
+     */
+    public static void setSharedWindow(boolean sharedWindow, long idleTimeout) {
+
+        ManagerXToast.getInstance().setSharedWindow(sharedWindow, idleTimeout);
+
+    }
+
+    /**
+     * 通过句柄取消一个排队中或正在显示的XToast,需要在主线程调用
+     *
+     * @param handle {@link ToastHandle}
+     *
+     * @return boolean XToast不在排队或显示时返回false
+     */
+    public static boolean cancel(ToastHandle handle) {
+
+        return ManagerXToast.getInstance().cancel(handle);
+
+    }
+
+    /**
+     * 查询句柄对应的XToast是否正在排队或显示,被合并或丢弃的XToast返回false.
+     * 需要在主线程调用
+     *
+     * @param handle {@link ToastHandle}
+     *
+     * @return boolean
+     */
+    public static boolean isQueued(ToastHandle handle) {
+
+        return ManagerXToast.getInstance().isQueued(handle);
+
+    }
+
+    /**
+     * 通过句柄更新排队中或正在显示的XToast的文本,需要在主线程调用
+     *
+     * @param handle {@link ToastHandle}
+     * @param text   {@link CharSequence}
+     *
+     * @return boolean XToast不在排队或显示时返回false
+     */
+    public static boolean update(ToastHandle handle, CharSequence text) {
+
+        return ManagerXToast.getInstance().update(handle, text);
+
+    }
+
     /**
      * 销毁并移除所有的XToast
      */
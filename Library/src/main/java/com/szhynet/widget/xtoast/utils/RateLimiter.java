@@ -0,0 +1,305 @@
+/**
+ * Copyright (c) 华影网络科技有限公司 宋小雄 2016.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.szhynet.widget.xtoast.utils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * Token bucket that limits how fast XToasts, XActivityToasts and XCardToasts are accepted.
+ * A bucket holds up to burst tokens and refills at permits per window. Every accepted toast
+ * takes one token from the global bucket and, if a per key limit is set, one from the bucket
+ * of its key. Set it with XToast.setRateLimiter(), XActivityToast.setRateLimiter() or
+ * XCardToast.setRateLimiter().
+ */
+public class RateLimiter {
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static final String TAG = "RateLimiter";
+
+    private static final String ERROR_INVALIDLIMIT = " - permits, window and burst must all be positive.";
+
+    /* Key buckets are pruned once there are more than this many */
+    private static final int MAX_IDLE_KEYS = 64;
+
+    /**
+     * What happens to a toast that exceeds the limit.
+     */
+    public enum OnLimit {
+
+        /**
+         * The toast is dropped and its dismiss listener is called.
+         */
+        DROP,
+
+        /**
+         * The toast is merged into a showing or pending toast with the same coalesce key,
+         * or dropped if there is none.
+         */
+        COLLAPSE
+
+    }
+
+    private final Bucket mGlobal;
+    private final HashMap<String, Bucket> mKeyBuckets = new HashMap<String, Bucket>();
+
+    private OnLimit mOnLimit = OnLimit.DROP;
+    private int mKeyPermits;
+    private int mKeyBurst;
+    private long mKeyWindow;
+    private long mAccepted;
+    private long mRejected;
+
+    /**
+     * Allows permits toasts per window with a burst of the same size.
+     *
+     * @param permits      int
+     * @param windowMillis long
+     */
+    public RateLimiter(int permits, long windowMillis) {
+
+        this(permits, windowMillis, permits);
+
+    }
+
+    /**
+     * Allows permits toasts per window with up to burst toasts accepted at once.
+     *
+     * @param permits      int
+     * @param windowMillis long
+     * @param burst        int
+     */
+    public RateLimiter(int permits, long windowMillis, int burst) {
+
+        checkLimit(permits, windowMillis, burst);
+
+        mGlobal = new Bucket(permits, windowMillis, burst);
+
+    }
+
+    /**
+     * Additionally limits toasts sharing a coalesce key to permits per window.
+     *
+     * @param permits      int
+     * @param windowMillis long
+     * @param burst        int
+     */
+    public synchronized void setPerKeyLimit(int permits, long windowMillis, int burst) {
+
+        checkLimit(permits, windowMillis, burst);
+
+        this.mKeyPermits = permits;
+        this.mKeyWindow = windowMillis;
+        this.mKeyBurst = burst;
+
+        mKeyBuckets.clear();
+
+    }
+
+    /**
+     * Removes the per key limit.
+     */
+    public synchronized void clearPerKeyLimit() {
+
+        this.mKeyPermits = 0;
+
+        mKeyBuckets.clear();
+
+    }
+
+    /**
+     * Sets what happens to a toast that exceeds the limit.
+     *
+     * @param onLimit {@link OnLimit}
+     */
+    public synchronized void setOnLimit(OnLimit onLimit) {
+
+        this.mOnLimit = onLimit;
+
+    }
+
+    /**
+     * Returns what happens to a toast that exceeds the limit.
+     *
+     * @return {@link OnLimit}
+     */
+    public synchronized OnLimit getOnLimit() {
+
+        return mOnLimit;
+
+    }
+
+    /**
+     * Takes a token for a toast. Returns false if the toast exceeds the limit.
+     *
+     * @param key {@link String} may be null to skip the per key limit
+     * @param now long uptime in milliseconds
+     *
+     * @return boolean
+     */
+    public synchronized boolean tryAcquire(String key, long now) {
+
+        mGlobal.refill(now);
+
+        Bucket keyBucket = null;
+
+        if (key != null && mKeyPermits > 0) {
+
+            keyBucket = mKeyBuckets.get(key);
+
+            if (keyBucket == null) {
+
+                pruneKeyBuckets(now);
+
+                keyBucket = new Bucket(mKeyPermits, mKeyWindow, mKeyBurst);
+                keyBucket.refill(now);
+
+                mKeyBuckets.put(key, keyBucket);
+
+            } else {
+
+                keyBucket.refill(now);
+
+            }
+
+        }
+
+        if (mGlobal.mTokens < 1 || (keyBucket != null && keyBucket.mTokens < 1)) {
+
+            mRejected++;
+
+            return false;
+
+        }
+
+        mGlobal.mTokens--;
+
+        if (keyBucket != null) {
+
+            keyBucket.mTokens--;
+
+        }
+
+        mAccepted++;
+
+        return true;
+
+    }
+
+    /**
+     * Returns how many toasts have been accepted since the last {@link #resetCounters()}.
+     *
+     * @return long
+     */
+    public synchronized long getAcceptedCount() {
+
+        return mAccepted;
+
+    }
+
+    /**
+     * Returns how many toasts have been rejected since the last {@link #resetCounters()}.
+     *
+     * @return long
+     */
+    public synchronized long getRejectedCount() {
+
+        return mRejected;
+
+    }
+
+    /**
+     * Resets the accepted and rejected counters.
+     */
+    public synchronized void resetCounters() {
+
+        mAccepted = 0;
+        mRejected = 0;
+
+    }
+
+    /* Drops key buckets that have refilled completely, they behave like new ones */
+    private void pruneKeyBuckets(long now) {
+
+        if (mKeyBuckets.size() < MAX_IDLE_KEYS) {
+
+            return;
+
+        }
+
+        final Iterator<Bucket> iterator = mKeyBuckets.values().iterator();
+
+        while (iterator.hasNext()) {
+
+            final Bucket bucket = iterator.next();
+
+            bucket.refill(now);
+
+            if (bucket.mTokens >= bucket.mBurst) {
+
+                iterator.remove();
+
+            }
+
+        }
+
+    }
+
+    private static void checkLimit(int permits, long windowMillis, int burst) {
+
+        if (permits <= 0 || windowMillis <= 0 || burst <= 0) {
+
+            throw new IllegalArgumentException(TAG + ERROR_INVALIDLIMIT);
+
+        }
+
+    }
+
+    private static final class Bucket {
+
+        final double mRefillPerMilli;
+        final int mBurst;
+
+        double mTokens;
+        long mLastRefill = -1;
+
+        Bucket(int permits, long windowMillis, int burst) {
+
+            this.mRefillPerMilli = (double) permits / windowMillis;
+            this.mBurst = burst;
+            this.mTokens = burst;
+
+        }
+
+        void refill(long now) {
+
+            if (mLastRefill < 0) {
+
+                mLastRefill = now;
+
+            } else if (now > mLastRefill) {
+
+                mTokens = Math.min(mBurst, mTokens + (now - mLastRefill) * mRefillPerMilli);
+                mLastRefill = now;
+
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,391 @@
+package com.szhynet.widget.xtoast;
+
+import com.szhynet.widget.xtoast.utils.RateLimiter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives the scheduling core with a hand advanced clock, no device or Looper needed.
+ */
+public class ToastSchedulerTest {
+
+    private FakeTime mTime;
+    private Recorder mRecorder;
+    private ToastScheduler<Toy> mScheduler;
+
+    @Before
+    public void setUp() {
+        mTime = new FakeTime(1000);
+        mRecorder = new Recorder();
+        mScheduler = new ToastScheduler<Toy>(3, mTime, mTime, mRecorder);
+    }
+
+    @Test
+    public void showsByPriorityOneAtATime() {
+        final Toy low = new Toy("low", 0);
+        final Toy high = new Toy("high", 2);
+        final Toy medium = new Toy("medium", 1);
+
+        mScheduler.offer(low);
+        mScheduler.offer(high);
+        mScheduler.offer(medium);
+
+        assertEquals(1, mScheduler.getShowingCount());
+        assertSame(low, mScheduler.getShowing(0));
+
+        mScheduler.release(low, true);
+        mScheduler.promote();
+        assertSame(high, mScheduler.getShowing(0));
+
+        mScheduler.release(high, true);
+        mScheduler.promote();
+        assertSame(medium, mScheduler.getShowing(0));
+    }
+
+    @Test
+    public void pausedTimerKeepsItsRemainingTime() {
+        final Toy toy = new Toy("toy", 0);
+
+        mScheduler.offer(toy);
+        mScheduler.startTimer(toy, 2000);
+
+        mTime.advance(500);
+        mScheduler.pauseTimer(toy, ToastClock.PAUSE_BACKGROUND);
+        mTime.advance(10000);
+        assertTrue(mRecorder.timedOut.isEmpty());
+        assertEquals(1500, mScheduler.getRemaining(toy));
+
+        mScheduler.resumeTimer(toy, ToastClock.PAUSE_BACKGROUND);
+        mTime.advance(1499);
+        assertTrue(mRecorder.timedOut.isEmpty());
+        mTime.advance(1);
+        assertEquals(1, mRecorder.timedOut.size());
+    }
+
+    @Test
+    public void expiresQueuedToastsAtTheirDeadline() {
+        final Toy showing = new Toy("showing", 0);
+        final Toy waiting = new Toy("waiting", 0);
+        waiting.deadline = mTime.now() + 3000;
+        mRecorder.duration = 10000;
+
+        mScheduler.offer(showing);
+        mScheduler.offer(waiting);
+
+        mTime.advance(3000);
+
+        assertEquals(1, mScheduler.getExpiredCount());
+        assertTrue(mRecorder.dropped.contains(waiting));
+        assertNull(mScheduler.get(waiting.handle));
+        assertEquals(0, mScheduler.indexOf(showing));
+    }
+
+    @Test
+    public void dropOldestMakesRoomForNewToasts() {
+        mScheduler.setMaxQueueSize(2, ToastScheduler.OverflowPolicy.DROP_OLDEST);
+
+        final Toy showing = new Toy("showing", 0);
+        final Toy first = new Toy("first", 0);
+        final Toy second = new Toy("second", 0);
+        final Toy third = new Toy("third", 0);
+
+        mScheduler.offer(showing);
+        mScheduler.offer(first);
+        mScheduler.offer(second);
+        mScheduler.offer(third);
+
+        assertEquals(1, mRecorder.dropped.size());
+        assertSame(first, mRecorder.dropped.get(0));
+        assertTrue(mScheduler.isPending(second));
+        assertTrue(mScheduler.isPending(third));
+    }
+
+    @Test
+    public void replaceSameKeyFindsAnOlderDuplicate() {
+        mScheduler.setMaxQueueSize(2, ToastScheduler.OverflowPolicy.REPLACE_SAME_KEY);
+
+        final Toy showing = new Toy("showing", 0);
+        final Toy older = new Toy("same", 0);
+        final Toy newer = new Toy("same", 0);
+        final Toy replacement = new Toy("same", 0);
+
+        mScheduler.offer(showing);
+        mScheduler.offer(older);
+        mScheduler.offer(newer);
+        mScheduler.dequeue(newer);
+        mScheduler.offer(new Toy("other", 0));
+
+        assertTrue(mScheduler.offer(replacement));
+        assertTrue(mRecorder.dropped.contains(older));
+        assertTrue(mScheduler.isPending(replacement));
+    }
+
+    @Test
+    public void collapseStillDropsTheRejectedToast() {
+        mScheduler.setMaxQueueSize(1, ToastScheduler.OverflowPolicy.COLLAPSE);
+
+        final Toy summary = new Toy("summary", 0);
+        final Toy rejected = new Toy("rejected", 0);
+
+        mScheduler.offer(new Toy("showing", 0));
+        mScheduler.offer(summary);
+
+        assertFalse(mScheduler.offer(rejected));
+        assertEquals(1, mRecorder.collapsed);
+        assertTrue(mRecorder.dropped.contains(rejected));
+        assertEquals(1, mScheduler.getMetrics().getCount(ToastMetrics.Event.DROPPED));
+        assertTrue(mScheduler.isPending(summary));
+    }
+
+    @Test
+    public void resumedToastIsOlderThanTheWaitingOnes() {
+        mScheduler.setMaxQueueSize(2, ToastScheduler.OverflowPolicy.COLLAPSE);
+
+        final Toy interrupted = new Toy("interrupted", 0);
+        final Toy waiting = new Toy("waiting", 1);
+
+        mScheduler.offer(interrupted);
+        mScheduler.offer(waiting);
+        mScheduler.requeueFirst(interrupted);
+
+        /* Its lane was empty, it still must not look like the newest entry */
+        mScheduler.offer(new Toy("third", 0));
+        assertSame(waiting, mRecorder.summary);
+    }
+
+    @Test
+    public void coalescesDuplicatesOfTheShowingToast() {
+        mScheduler.setCoalescing(true);
+
+        mScheduler.offer(new Toy("same", 0));
+
+        assertFalse(mScheduler.offer(new Toy("same", 0)));
+        assertEquals(1, mRecorder.coalesced);
+        assertEquals(1, mScheduler.getShowingCount());
+    }
+
+    @Test
+    public void dropsARateLimitedDuplicateThatCannotBeMerged() {
+        final RateLimiter rateLimiter = new RateLimiter(1, 1000);
+        rateLimiter.setOnLimit(RateLimiter.OnLimit.COLLAPSE);
+        mScheduler.setRateLimiter(rateLimiter);
+        mRecorder.merges = false;
+
+        final Toy duplicate = new Toy("same", 0);
+
+        mScheduler.offer(new Toy("same", 0));
+
+        assertFalse(mScheduler.offer(duplicate));
+        assertTrue(mRecorder.dropped.contains(duplicate));
+        assertEquals(0, mScheduler.getMetrics().getCount(ToastMetrics.Event.COALESCED));
+        assertEquals(1, mScheduler.getMetrics().getCount(ToastMetrics.Event.DROPPED));
+    }
+
+    @Test
+    public void ignoresAToastOfferedWhileShowing() {
+        mScheduler.setSlots(2);
+
+        final Toy toy = new Toy("toy", 0);
+
+        assertTrue(mScheduler.offer(toy));
+        assertFalse(mScheduler.offer(toy));
+        assertEquals(1, mScheduler.getShowingCount());
+
+        mScheduler.release(toy, true);
+        assertEquals(0, mScheduler.getShowingCount());
+        assertTrue(mScheduler.isIdle());
+    }
+
+    @Test
+    public void recordsLifecycleMetrics() {
+        mScheduler.setMaxQueueSize(1, ToastScheduler.OverflowPolicy.DROP_NEWEST);
+
+        final Toy first = new Toy("first", 0);
+        final Toy second = new Toy("second", 0);
+        final Toy third = new Toy("third", 0);
+
+        mScheduler.offer(first);
+        mScheduler.offer(second);
+        mScheduler.offer(third);
+
+        /* first shows for 1000 ms, then second shows after waiting as long */
+        mTime.advance(1000);
+        mScheduler.clear();
+
+        final ToastMetrics metrics = mScheduler.getMetrics();
+        assertEquals(2, metrics.getCount(ToastMetrics.Event.ENQUEUED));
+        assertEquals(2, metrics.getCount(ToastMetrics.Event.DISPLAYED));
+        assertEquals(1, metrics.getCount(ToastMetrics.Event.DISMISSED));
+        assertEquals(1, metrics.getCount(ToastMetrics.Event.CANCELLED));
+        assertEquals(1, metrics.getCount(ToastMetrics.Event.DROPPED));
+        assertEquals(1, metrics.getMaxQueueDepth());
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(2, metrics.getWaitTime().getCount());
+        assertEquals(1000, metrics.getWaitTime().getMax());
+        assertEquals(1000, metrics.getDisplayTime().getPercentile(50));
+    }
+
+    @Test
+    public void simulatesHoursOfTraffic() {
+        mScheduler.setSlots(3);
+
+        final int count = 100000;
+
+        for (int i = 0; i < count; i++) {
+            final Toy toy = new Toy("toy" + i, i % 3);
+            toy.deadline = mTime.now() + 4000;
+            mScheduler.offer(toy);
+            mTime.advance(400);
+        }
+
+        mTime.advance(60000);
+
+        /* Every toast was either shown to the end or expired while waiting */
+        assertEquals(count, mRecorder.timedOut.size() + mScheduler.getExpiredCount());
+        assertTrue(mScheduler.isIdle());
+    }
+
+    private static final class Toy {
+
+        final String key;
+        final int lane;
+        final ToastHandle handle = new ToastHandle();
+        long deadline;
+
+        Toy(String key, int lane) {
+            this.key = key;
+            this.lane = lane;
+        }
+
+    }
+
+    /* Shows every promoted toast for its duration and frees its slot when the time is up */
+    private final class Recorder implements ToastScheduler.Callback<Toy> {
+
+        final List<Toy> timedOut = new ArrayList<Toy>();
+        final List<Toy> dropped = new ArrayList<Toy>();
+        int coalesced;
+        int collapsed;
+        Toy summary;
+        boolean merges = true;
+        long duration = 1000;
+
+        @Override
+        public ToastHandle getHandle(Toy toy) {
+            return toy.handle;
+        }
+
+        @Override
+        public int getLane(Toy toy) {
+            return toy.lane;
+        }
+
+        @Override
+        public String getKey(Toy toy) {
+            return toy.key;
+        }
+
+        @Override
+        public long getDeadline(Toy toy) {
+            return toy.deadline;
+        }
+
+        @Override
+        public void onShow(Toy toy) {
+            mScheduler.startTimer(toy, duration);
+        }
+
+        @Override
+        public boolean onCoalesce(Toy toy, boolean showing) {
+            if (merges) {
+                coalesced++;
+            }
+            return merges;
+        }
+
+        @Override
+        public void onCollapse(Toy toy) {
+            collapsed++;
+            summary = toy;
+        }
+
+        @Override
+        public void onDrop(Toy toy) {
+            dropped.add(toy);
+        }
+
+        @Override
+        public void onTimeUp(Toy toy) {
+            timedOut.add(toy);
+            mScheduler.release(toy, true);
+            mScheduler.promote();
+        }
+
+    }
+
+    /* Clock and executor that only move when the test advances them */
+    private static final class FakeTime implements Clock, DelayedExecutor {
+
+        private final List<Runnable> mTasks = new ArrayList<Runnable>();
+        private final List<Long> mTimes = new ArrayList<Long>();
+        private long mNow;
+
+        FakeTime(long now) {
+            mNow = now;
+        }
+
+        @Override
+        public long now() {
+            return mNow;
+        }
+
+        @Override
+        public void executeAt(Runnable task, long time) {
+            mTasks.add(task);
+            mTimes.add(time);
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            for (int i = mTasks.size() - 1; i >= 0; i--) {
+                if (mTasks.get(i) == task) {
+                    mTasks.remove(i);
+                    mTimes.remove(i);
+                }
+            }
+        }
+
+        /* Runs the due tasks in time order, moving the clock to each one */
+        void advance(long millis) {
+            final long target = mNow + millis;
+
+            while (true) {
+                int next = -1;
+
+                for (int i = 0; i < mTimes.size(); i++) {
+                    if (mTimes.get(i) <= target
+                            && (next < 0 || mTimes.get(i) < mTimes.get(next))) {
+                        next = i;
+                    }
+                }
+
+                if (next < 0) {
+                    break;
+                }
+
+                mNow = Math.max(mNow, mTimes.remove(next));
+                mTasks.remove(next).run();
+            }
+
+            mNow = target;
+        }
+
+    }
+
+}
@@ -0,0 +1,260 @@
+package com.szhynet.xtoastdemo;
+
+import android.app.Activity;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.szhynet.widget.xtoast.XToast;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Inflation cost of every layout the library uses next to building it in code with the
+ * view factory, see {@link PerfBudget} for the budgets. Compare the inflate_ and build_
+ * lines of a layout for what the factory saves, and the measure_ lines for what the flat
+ * STANDARD view saves on every layout pass.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23, packageName = "com.szhynet.xtoastdemo")
+public class InflationPerfTest {
+
+    private static final double MAX_MILLIS = 20;
+    private static final long MAX_BYTES = 512 * 1024;
+
+    /* A toast at most as wide as a phone screen, as tall as it wants */
+    private static final int WIDTH_SPEC =
+            View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.AT_MOST);
+    private static final int HEIGHT_SPEC =
+            View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+
+    private Activity mActivity;
+    private LayoutInflater mInflater;
+    private FrameLayout mParent;
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.setupActivity(Activity.class);
+
+        mInflater = LayoutInflater.from(mActivity);
+        mParent = new FrameLayout(mActivity);
+    }
+
+    @Test
+    public void supertoast() {
+        inflate("supertoast", com.szhynet.widget.xtoast.R.layout.supertoast, 2);
+    }
+
+    @Test
+    public void supercardtoast() {
+        inflate("supercardtoast", com.szhynet.widget.xtoast.R.layout.supercardtoast, 2);
+    }
+
+    @Test
+    public void supercardtoastButton() {
+        inflate("supercardtoast_button",
+                com.szhynet.widget.xtoast.R.layout.supercardtoast_button, 4);
+    }
+
+    @Test
+    public void supercardtoastProgressCircle() {
+        inflate("supercardtoast_progresscircle",
+                com.szhynet.widget.xtoast.R.layout.supercardtoast_progresscircle, 3);
+    }
+
+    @Test
+    public void supercardtoastProgressHorizontal() {
+        inflate("supercardtoast_progresshorizontal",
+                com.szhynet.widget.xtoast.R.layout.supercardtoast_progresshorizontal, 3);
+    }
+
+    @Test
+    public void superactivitytoastButton() {
+        inflate("superactivitytoast_button",
+                com.szhynet.widget.xtoast.R.layout.superactivitytoast_button, 4);
+    }
+
+    @Test
+    public void superactivitytoastProgressCircle() {
+        inflate("superactivitytoast_progresscircle",
+                com.szhynet.widget.xtoast.R.layout.superactivitytoast_progresscircle, 3);
+    }
+
+    @Test
+    public void superactivitytoastProgressHorizontal() {
+        inflate("superactivitytoast_progresshorizontal",
+                com.szhynet.widget.xtoast.R.layout.superactivitytoast_progresshorizontal, 3);
+    }
+
+    @Test
+    public void buildSupertoast() {
+        build("supertoast", com.szhynet.widget.xtoast.R.layout.supertoast, 2);
+    }
+
+    @Test
+    public void buildSupercardtoast() {
+        build("supercardtoast", com.szhynet.widget.xtoast.R.layout.supercardtoast, 2);
+    }
+
+    @Test
+    public void buildSupercardtoastButton() {
+        build("supercardtoast_button", com.szhynet.widget.xtoast.R.layout.supercardtoast_button, 4);
+    }
+
+    @Test
+    public void buildSupercardtoastProgressCircle() {
+        build("supercardtoast_progresscircle",
+                com.szhynet.widget.xtoast.R.layout.supercardtoast_progresscircle, 3);
+    }
+
+    @Test
+    public void buildSupercardtoastProgressHorizontal() {
+        build("supercardtoast_progresshorizontal",
+                com.szhynet.widget.xtoast.R.layout.supercardtoast_progresshorizontal, 3);
+    }
+
+    @Test
+    public void buildSuperactivitytoastButton() {
+        build("superactivitytoast_button",
+                com.szhynet.widget.xtoast.R.layout.superactivitytoast_button, 4);
+    }
+
+    @Test
+    public void buildSuperactivitytoastProgressCircle() {
+        build("superactivitytoast_progresscircle",
+                com.szhynet.widget.xtoast.R.layout.superactivitytoast_progresscircle, 3);
+    }
+
+    @Test
+    public void buildSuperactivitytoastProgressHorizontal() {
+        build("superactivitytoast_progresshorizontal",
+                com.szhynet.widget.xtoast.R.layout.superactivitytoast_progresshorizontal, 3);
+    }
+
+    @Test
+    public void buildFlatSupertoast() {
+        buildFlat("supertoast", com.szhynet.widget.xtoast.R.layout.supertoast);
+    }
+
+    @Test
+    public void buildFlatSupercardtoast() {
+        buildFlat("supercardtoast", com.szhynet.widget.xtoast.R.layout.supercardtoast);
+    }
+
+    @Test
+    public void measureSupertoast() {
+        measure("supertoast", mInflater.inflate(com.szhynet.widget.xtoast.R.layout.supertoast,
+                mParent, false), 2);
+    }
+
+    @Test
+    public void measureFlatSupertoast() {
+        measure("flat_supertoast", XToast.getViewFactory().createFlat(mActivity,
+                com.szhynet.widget.xtoast.R.layout.supertoast, mParent), 1);
+    }
+
+    @Test
+    public void measureFlatSupertoastFromCache() {
+        XToast.getTextLayoutCache().trim();
+
+        final long hits = XToast.getTextLayoutCache().getHitCount();
+
+        PerfBudget.check("measure_flat_supertoast_cached", MAX_MILLIS, MAX_BYTES, 1,
+                new PerfBudget.Operation() {
+
+                    @Override
+                    public View run() {
+                        final View view = XToast.getViewFactory().createFlat(mActivity,
+                                com.szhynet.widget.xtoast.R.layout.supertoast, mParent);
+
+                        view.measure(WIDTH_SPEC, HEIGHT_SPEC);
+
+                        return view;
+                    }
+
+                });
+
+        /* Each measure looks up the text at the widest and at its own width, only the first
+         * run lays it out */
+        assertEquals(2 * (PerfBudget.WARMUP + PerfBudget.ITERATIONS - 1),
+                XToast.getTextLayoutCache().getHitCount() - hits);
+    }
+
+    /* The view budget is the layout's current size, a new view in it has to raise it */
+    private void inflate(String name, final int layout, int maxViews) {
+        PerfBudget.check("inflate_" + name, MAX_MILLIS, MAX_BYTES, maxViews,
+                new PerfBudget.Operation() {
+
+                    @Override
+                    public View run() {
+                        return mInflater.inflate(layout, mParent, false);
+                    }
+
+                });
+    }
+
+    /* Same view budget as the layout, the factory has to build the same tree */
+    private void build(String name, final int layout, int maxViews) {
+        PerfBudget.check("build_" + name, MAX_MILLIS, MAX_BYTES, maxViews,
+                new PerfBudget.Operation() {
+
+                    @Override
+                    public View run() {
+                        return XToast.getViewFactory().create(mActivity, layout, mParent);
+                    }
+
+                });
+    }
+
+    /* A flat view has to stay a single view */
+    private void buildFlat(String name, final int layout) {
+        PerfBudget.check("build_flat_" + name, MAX_MILLIS, MAX_BYTES, 1,
+                new PerfBudget.Operation() {
+
+                    @Override
+                    public View run() {
+                        return XToast.getViewFactory().createFlat(mActivity, layout, mParent);
+                    }
+
+                });
+    }
+
+    /* A full measure and layout pass, as after a setText() */
+    private void measure(String name, final View view, int maxViews) {
+        PerfBudget.check("measure_" + name, MAX_MILLIS, MAX_BYTES, maxViews,
+                new PerfBudget.Operation() {
+
+                    @Override
+                    public View run() {
+                        forceLayout(view);
+
+                        view.measure(WIDTH_SPEC, HEIGHT_SPEC);
+                        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+
+                        return view;
+                    }
+
+                });
+    }
+
+    private static void forceLayout(View view) {
+        view.forceLayout();
+
+        if (view instanceof ViewGroup) {
+            final ViewGroup viewGroup = (ViewGroup) view;
+
+            for (int i = 0; i < viewGroup.getChildCount(); i++) {
+                forceLayout(viewGroup.getChildAt(i));
+            }
+        }
+    }
+
+}
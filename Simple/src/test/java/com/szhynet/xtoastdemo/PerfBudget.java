@@ -0,0 +1,107 @@
+package com.szhynet.xtoastdemo;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures an operation and fails the test when it goes over its budget.
+ *
+ * Budgets default to the values passed in and can be overridden per operation with the
+ * system properties xtoast.budget.&lt;operation&gt;.ms, .bytes and .views, e.g.
+ * ./gradlew :Simple:testDebugUnitTest -Pxtoast.budget.inflate_supertoast.ms=5
+ */
+final class PerfBudget {
+
+    /** Runs before measuring so class loading and resource parsing are not counted */
+    static final int WARMUP = 5;
+
+    static final int ITERATIONS = 20;
+
+    private PerfBudget() {
+    }
+
+    /**
+     * The operation being measured, returns the view it produced or null.
+     */
+    interface Operation {
+        View run();
+    }
+
+    /**
+     * Runs an operation and checks wall time, allocated bytes and view count per run
+     * against the budget of that name.
+     */
+    static void check(String name, double maxMillis, long maxBytes, int maxViews,
+                      Operation operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+
+        final long bytesBefore = allocatedBytes();
+        final long start = System.nanoTime();
+
+        View view = null;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            view = operation.run();
+        }
+
+        final double millis = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+        final long bytes = bytesBefore < 0 ? -1 : (allocatedBytes() - bytesBefore) / ITERATIONS;
+        final int views = view == null ? 0 : countViews(view);
+
+        /* One line per operation so runs can be compared with grep and diff */
+        System.out.println(String.format(Locale.US, "perf %s ms/op=%.3f bytes/op=%d views=%d",
+                name, millis, bytes, views));
+
+        final double millisBudget = budget(name, "ms", maxMillis);
+        final long bytesBudget = (long) budget(name, "bytes", maxBytes);
+        final int viewsBudget = (int) budget(name, "views", maxViews);
+
+        assertTrue(name + " took " + millis + " ms, budget " + millisBudget,
+                millis <= millisBudget);
+        assertTrue(name + " allocated " + bytes + " bytes, budget " + bytesBudget,
+                bytes <= bytesBudget);
+        assertTrue(name + " has " + views + " views, budget " + viewsBudget,
+                views <= viewsBudget);
+    }
+
+    static int countViews(View view) {
+        int count = 1;
+
+        if (view instanceof ViewGroup) {
+            final ViewGroup viewGroup = (ViewGroup) view;
+
+            for (int i = 0; i < viewGroup.getChildCount(); i++) {
+                count += countViews(viewGroup.getChildAt(i));
+            }
+        }
+
+        return count;
+    }
+
+    private static double budget(String name, String unit, double fallback) {
+        final String value = System.getProperty("xtoast.budget." + name + "." + unit);
+
+        return value != null ? Double.parseDouble(value) : fallback;
+    }
+
+    /* Bytes allocated by this thread so far, -1 if the JVM can not tell */
+    private static long allocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return -1;
+    }
+
+}
@@ -0,0 +1,237 @@
+package com.szhynet.xtoastdemo;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.os.Parcel;
+import android.view.View;
+
+import com.szhynet.widget.xtoast.XActivityToast;
+import com.szhynet.widget.xtoast.XCardToast;
+import com.szhynet.widget.xtoast.XToast;
+import com.szhynet.widget.xtoast.utils.Style;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Show and dismiss cost through each manager with the main looper paused, so every frame
+ * and timer runs only when the test advances the clock. See {@link PerfBudget} for the
+ * budgets.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23, packageName = "com.szhynet.xtoastdemo")
+public class ToastCyclePerfTest {
+
+    private static final double MAX_MILLIS = 50;
+    private static final long MAX_BYTES = 2 * 1024 * 1024;
+
+    /* Long enough for the next frame and the enter animation */
+    private static final long FRAME = 50;
+
+    private Activity mActivity;
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.setupActivity(Activity.class);
+        mActivity.setContentView(com.szhynet.widget.xtoast.R.layout.dummy_layout);
+
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        XToast.cancelAllSuperToasts();
+        XActivityToast.cancelAllSuperActivityToasts();
+        XCardToast.cancelAllSuperCardToasts();
+
+        XToast.getViewPool().setMaxSize(0);
+
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void xToastShowAndDismiss() {
+        PerfBudget.check("cycle_xtoast", MAX_MILLIS, MAX_BYTES, 2, new PerfBudget.Operation() {
+
+            @Override
+            public View run() {
+                final XToast xToast = XToast.create(mActivity, "Saved", XToast.Duration.SHORT);
+                xToast.show();
+                ShadowLooper.idleMainLooper(FRAME);
+
+                xToast.dismiss();
+                ShadowLooper.idleMainLooper(FRAME);
+
+                return xToast.getView();
+            }
+
+        });
+    }
+
+    @Test
+    public void xActivityToastShowAndDismiss() {
+        PerfBudget.check("cycle_xactivitytoast", MAX_MILLIS, MAX_BYTES, 2,
+                new PerfBudget.Operation() {
+
+                    @Override
+                    public View run() {
+                        final XActivityToast xActivityToast = XActivityToast.create(mActivity,
+                                "Saved", XToast.Duration.SHORT);
+                        xActivityToast.show();
+                        ShadowLooper.idleMainLooper(FRAME);
+
+                        xActivityToast.dismiss();
+                        ShadowLooper.idleMainLooper(FRAME);
+
+                        return xActivityToast.getView();
+                    }
+
+                });
+    }
+
+    @Test
+    public void xCardToastShowAndDismiss() {
+        PerfBudget.check("cycle_xcardtoast", MAX_MILLIS, MAX_BYTES, 2,
+                new PerfBudget.Operation() {
+
+                    @Override
+                    public View run() {
+                        return cycleXCardToast();
+                    }
+
+                });
+    }
+
+    @Test
+    public void xCardToastReusesPooledViews() {
+        XToast.getViewPool().setMaxSize(2);
+
+        final long hits = XToast.getViewPool().getHitCount();
+
+        PerfBudget.check("cycle_xcardtoast_pooled", MAX_MILLIS, MAX_BYTES, 2,
+                new PerfBudget.Operation() {
+
+                    @Override
+                    public View run() {
+                        return cycleXCardToast();
+                    }
+
+                });
+
+        /* Every run after the first one gets the view the previous run dismissed */
+        assertEquals(PerfBudget.WARMUP + PerfBudget.ITERATIONS - 1,
+                XToast.getViewPool().getHitCount() - hits);
+    }
+
+    @Test
+    public void xToastReusesItsViewWhenShownAgain() {
+        XToast.getViewPool().setMaxSize(2);
+
+        final XToast xToast = XToast.create(mActivity, "Saved", XToast.Duration.SHORT);
+        xToast.show();
+        ShadowLooper.idleMainLooper(FRAME);
+
+        final View view = xToast.getView();
+
+        xToast.dismiss();
+        ShadowLooper.idleMainLooper(FRAME);
+
+        final long hits = XToast.getViewPool().getHitCount();
+
+        xToast.show();
+        ShadowLooper.idleMainLooper(FRAME);
+
+        /* The window let go of the view on dismiss, so the pool handed it back */
+        assertEquals(hits + 1, XToast.getViewPool().getHitCount());
+        assertSame(view, xToast.getView());
+    }
+
+    @Test
+    public void xToastTimesOut() {
+        PerfBudget.check("timeout_xtoast", MAX_MILLIS, MAX_BYTES, 2, new PerfBudget.Operation() {
+
+            @Override
+            public View run() {
+                final XToast xToast = XToast.create(mActivity, "Saved", XToast.Duration.SHORT);
+                xToast.show();
+
+                /* Display time, exit animation and the frame that removes it */
+                ShadowLooper.idleMainLooper(XToast.Duration.SHORT + 4 * FRAME + 1000);
+
+                return xToast.getView();
+            }
+
+        });
+    }
+
+    @Test
+    public void customStyle() {
+        PerfBudget.check("style_getcustom", 5, 64 * 1024, 0, new PerfBudget.Operation() {
+
+            @Override
+            public View run() {
+                Style.getCustom(mActivity, Color.DKGRAY, Color.WHITE, Color.WHITE,
+                        Color.LTGRAY);
+
+                return null;
+            }
+
+        });
+    }
+
+    @Test
+    public void saveStateRoundTrip() {
+        PerfBudget.check("parcel_xactivitytoast", MAX_MILLIS, MAX_BYTES, 0,
+                new PerfBudget.Operation() {
+
+                    @Override
+                    public View run() {
+                        XActivityToast.create(mActivity, "Saved", XToast.Duration.LONG).show();
+                        ShadowLooper.idleMainLooper(FRAME);
+
+                        final Bundle bundle = new Bundle();
+                        XActivityToast.onSaveState(bundle);
+
+                        final Parcel parcel = Parcel.obtain();
+                        bundle.writeToParcel(parcel, 0);
+                        parcel.setDataPosition(0);
+
+                        final Bundle restored =
+                                parcel.readBundle(XActivityToast.class.getClassLoader());
+                        parcel.recycle();
+
+                        XActivityToast.onRestoreState(restored, mActivity);
+                        XActivityToast.cancelAllSuperActivityToasts();
+
+                        return null;
+                    }
+
+                });
+    }
+
+    private View cycleXCardToast() {
+        final XCardToast xCardToast = XCardToast.create(mActivity, "Saved",
+                XToast.Duration.SHORT);
+        xCardToast.setShowImmediate(true);
+        xCardToast.show();
+        ShadowLooper.idleMainLooper(FRAME);
+
+        final View view = xCardToast.getView();
+
+        xCardToast.dismissImmediately();
+        ShadowLooper.idleMainLooper(FRAME);
+
+        return view;
+    }
+
+}